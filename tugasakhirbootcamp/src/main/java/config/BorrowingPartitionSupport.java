@@ -0,0 +1,226 @@
+package config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code m_borrowings} range-partitioned by month of {@code borrow_date} on PostgreSQL.
+ * Opt-in through {@code app.borrowings.partitioning.enabled}: on the first start with it set, the
+ * table created by Hibernate is rebuilt as a partitioned table, then the
+ * maintenance job keeps partitions ready for the coming months and moves months older than
+ * the retention period into the compact {@code m_borrowings_history} table. A month that still
+ * holds an open loan is never archived. On any other database (H2 in tests) it stays disabled.
+ */
+@Component
+@Slf4j
+public class BorrowingPartitionSupport implements CommandLineRunner {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final String TABLE = "m_borrowings";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("^m_borrowings_y(\\d{4})m(\\d{2})$");
+    // Serializes the conversion across instances starting at the same time
+    private static final long CONVERSION_LOCK_KEY = 0x6d5f626f72726f77L;
+
+    // Same indexes as the Borrowing entity; on the partitioned parent they cascade to every partition
+    private static final List<String> INDEX_STATEMENTS = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_created_at ON m_borrowings (created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_updated_at ON m_borrowings (updated_at)",
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_status ON m_borrowings (status)",
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_borrow_date ON m_borrowings (borrow_date)",
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_due_date ON m_borrowings (due_date)",
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_status_due_date ON m_borrowings (status, due_date)",
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_member_status ON m_borrowings (member_id, status)",
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_book_status ON m_borrowings (book_id, status)"
+    );
+
+    private static final List<String> HISTORY_STATEMENTS = List.of(
+            "CREATE TABLE IF NOT EXISTS m_borrowings_history (id uuid NOT NULL, book_id bigint NOT NULL, " +
+                    "member_id bigint NOT NULL, copy_id bigint, borrow_date date NOT NULL, due_date date NOT NULL, " +
+                    "return_date date, status varchar(16) NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_history_borrow_date ON m_borrowings_history " +
+                    "USING brin (borrow_date)",
+            "CREATE INDEX IF NOT EXISTS idx_borrowing_history_member ON m_borrowings_history (member_id)"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.borrowings.partitioning.enabled:false}")
+    private boolean partitioningEnabled;
+
+    @Value("${app.borrowings.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.borrowings.archive.retention-months:24}")
+    private int retentionMonths;
+
+    private volatile boolean active;
+
+    public BorrowingPartitionSupport(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!partitioningEnabled) {
+            log.info("Borrowing partitioning disabled by configuration");
+            return;
+        }
+
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!POSTGRESQL.equalsIgnoreCase(product)) {
+            log.info("Borrowing partitioning not supported on {}", product);
+            return;
+        }
+
+        try {
+            if (!isPartitioned()) {
+                transactionTemplate.executeWithoutResult(status -> convertToPartitioned());
+            }
+            HISTORY_STATEMENTS.forEach(jdbcTemplate::execute);
+            createUpcomingPartitions();
+            active = true;
+            log.info("Borrowing partitioning enabled");
+        } catch (DataAccessException e) {
+            log.warn("Cannot partition {}, keeping the plain table: {}", TABLE, e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.borrowings.partitioning.maintenance-cron:0 30 2 * * *}")
+    public void maintain() {
+        if (!active) {
+            return;
+        }
+        createUpcomingPartitions();
+        archiveExpiredPartitions();
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                        "WHERE c.relname = ? AND pg_table_is_visible(c.oid))", Boolean.class, TABLE));
+    }
+
+    // Runs in one transaction: PostgreSQL DDL is transactional, so a failure leaves the plain table as it was
+    private void convertToPartitioned() {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, CONVERSION_LOCK_KEY);
+        jdbcTemplate.execute("LOCK TABLE m_borrowings IN ACCESS EXCLUSIVE MODE");
+        // Another instance may have converted the table while this one waited for the locks
+        if (isPartitioned()) {
+            return;
+        }
+        log.info("Converting {} to a table partitioned by month of borrow_date", TABLE);
+
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint " +
+                        "WHERE conrelid = 'm_borrowings'::regclass AND contype = 'f'");
+        LocalDate oldest = jdbcTemplate.queryForObject("SELECT MIN(borrow_date) FROM m_borrowings", LocalDate.class);
+
+        jdbcTemplate.execute("CREATE TABLE m_borrowings_partitioned (LIKE m_borrowings INCLUDING DEFAULTS " +
+                "INCLUDING CONSTRAINTS) PARTITION BY RANGE (borrow_date)");
+        // The partition key has to be part of the primary key
+        jdbcTemplate.execute("ALTER TABLE m_borrowings_partitioned ADD CONSTRAINT m_borrowings_partitioned_pkey " +
+                "PRIMARY KEY (id, borrow_date)");
+        jdbcTemplate.execute("CREATE TABLE m_borrowings_default PARTITION OF m_borrowings_partitioned DEFAULT");
+        YearMonth first = oldest == null ? YearMonth.now() : YearMonth.from(oldest);
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            createPartition("m_borrowings_partitioned", month);
+        }
+
+        jdbcTemplate.execute("INSERT INTO m_borrowings_partitioned SELECT * FROM m_borrowings");
+        jdbcTemplate.execute("DROP TABLE m_borrowings");
+        jdbcTemplate.execute("ALTER TABLE m_borrowings_partitioned RENAME TO m_borrowings");
+        jdbcTemplate.execute("ALTER TABLE m_borrowings RENAME CONSTRAINT m_borrowings_partitioned_pkey " +
+                "TO m_borrowings_pkey");
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE m_borrowings ADD CONSTRAINT " + foreignKey.get("conname") + " " +
+                    foreignKey.get("definition"));
+        }
+        INDEX_STATEMENTS.forEach(jdbcTemplate::execute);
+    }
+
+    private void createUpcomingPartitions() {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = YearMonth.now().plusMonths(i);
+            try {
+                createPartition(TABLE, month);
+            } catch (DataAccessException e) {
+                // Usually rows for that month already sit in the default partition
+                log.warn("Cannot create partition of {} for {}: {}", TABLE, month, e.getMessage());
+            }
+        }
+    }
+
+    private void createPartition(String parent, YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + "_" + month.format(PARTITION_SUFFIX) +
+                " PARTITION OF " + parent + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" +
+                month.plusMonths(1).atDay(1) + "')");
+    }
+
+    private void archiveExpiredPartitions() {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ? ORDER BY c.relname",
+                String.class, TABLE);
+
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            try {
+                Integer archived = transactionTemplate.execute(status -> archivePartition(partition));
+                if (archived != null) {
+                    log.info("Archived {} borrowings from {} into m_borrowings_history", archived, partition);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Cannot archive {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    // Returns null when the partition still holds an open loan and must stay attached
+    private Integer archivePartition(String partition) {
+        Boolean hasOpenLoans = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + partition +
+                " WHERE status IN ('BORROWED', 'OVERDUE'))", Boolean.class);
+        if (Boolean.TRUE.equals(hasOpenLoans)) {
+            log.info("Keeping {} attached, it still holds open loans", partition);
+            return null;
+        }
+        jdbcTemplate.execute("ALTER TABLE m_borrowings DETACH PARTITION " + partition);
+        int archived = jdbcTemplate.update("INSERT INTO m_borrowings_history (id, book_id, member_id, copy_id, " +
+                "borrow_date, due_date, return_date, status) SELECT id, book_id, member_id, copy_id, borrow_date, " +
+                "due_date, return_date, status FROM " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        return archived;
+    }
+}
@@ -0,0 +1,65 @@
+package config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import secruity.ratelimit.TokenBucketRateLimiter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Logback turbo filter that rate-limits repetitive WARN and ERROR lines from the configured
+ * loggers, such as one line per rejected token. Each logger and message template pair gets its
+ * own token bucket, so a flood of one error cannot hide a different one. Lines over the limit
+ * are dropped before an event is even created.
+ */
+public class LogSamplingTurboFilter extends TurboFilter {
+
+    private List<String> loggerPrefixes = List.of();
+    private double eventsPerSecond = 1;
+    private int burst = 10;
+    private TokenBucketRateLimiter limiter;
+
+    // Comma-separated logger name prefixes
+    public void setLoggers(String loggers) {
+        this.loggerPrefixes = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+    }
+
+    public void setEventsPerSecond(double eventsPerSecond) {
+        this.eventsPerSecond = eventsPerSecond;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    @Override
+    public void start() {
+        limiter = new TokenBucketRateLimiter(eventsPerSecond, burst);
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || level == null || format == null || !level.isGreaterOrEqual(Level.WARN)
+                || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return limiter.tryAcquire(logger.getName() + '|' + format) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isSampled(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
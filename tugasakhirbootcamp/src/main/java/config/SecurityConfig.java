@@ -11,6 +11,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import secruity.jwt.AuthEntryPointJwt;
 import secruity.jwt.AuthTokenFilter;
+import secruity.ratelimit.RateLimitFilter;
 
 @Configuration
 public class SecurityConfig {
@@ -18,13 +19,16 @@ public class SecurityConfig {
     private final AuthEntryPointJwt unauthorizedHandler;
     private final AuthTokenFilter authTokenFilter;
     private final AuthenticationProvider authenticationProvider;
+    private final RateLimitFilter rateLimitFilter;
 
     public SecurityConfig(AuthEntryPointJwt unauthorizedHandler,
                           AuthTokenFilter authTokenFilter,
-                          AuthenticationProvider authenticationProvider) {
+                          AuthenticationProvider authenticationProvider,
+                          RateLimitFilter rateLimitFilter) {
         this.unauthorizedHandler = unauthorizedHandler;
         this.authTokenFilter = authTokenFilter;
         this.authenticationProvider = authenticationProvider;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -35,13 +39,19 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/api/auth/register/**").permitAll() // ⬅️ Sama seperti configure lama
+                        .requestMatchers("/api/auth/login", "/api/auth/refresh").permitAll()
+                        .requestMatchers("/api/books/*/copies/**").hasAnyRole("ADMIN", "LIBRARIAN")
                         .requestMatchers("/api/books/**").hasAnyRole("ADMIN", "LIBRARIAN", "MEMBER")
                         .requestMatchers("/api/members/**").hasAnyRole("ADMIN", "LIBRARIAN")
                         .requestMatchers("/api/borrowings/**").hasAnyRole("ADMIN", "LIBRARIAN")
+                        .requestMatchers("/api/users/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider)
-                .addFilterBefore(authTokenFilter, UsernamePasswordAuthenticationFilter.class); // Tambahkan filter JWT
+                .addFilterBefore(authTokenFilter, UsernamePasswordAuthenticationFilter.class) // Tambahkan filter JWT
+                .addFilterAfter(rateLimitFilter, AuthTokenFilter.class);
 
         return http.build();
     }
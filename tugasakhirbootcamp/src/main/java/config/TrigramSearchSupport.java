@@ -0,0 +1,66 @@
+package config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Prepares the pg_trgm GIN indexes used by catalog substring search and reports whether the
+ * trigram query path can be used. On any database other than PostgreSQL (H2 in tests) it stays
+ * disabled and searches keep using the portable JPQL query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrigramSearchSupport implements CommandLineRunner {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final List<String> INDEX_STATEMENTS = List.of(
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_book_title_trgm ON m_books USING gin (lower(title) gin_trgm_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_book_author_trgm ON m_books USING gin (lower(author) gin_trgm_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_book_category_lower ON m_books (lower(category))"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.search.trigram.enabled:true}")
+    private boolean trigramEnabled;
+
+    private volatile boolean available;
+
+    @Override
+    public void run(String... args) {
+        if (!trigramEnabled) {
+            log.info("Trigram catalog search disabled by configuration");
+            return;
+        }
+
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!POSTGRESQL.equalsIgnoreCase(product)) {
+            log.info("Trigram catalog search not supported on {}, using LIKE search", product);
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            INDEX_STATEMENTS.forEach(jdbcTemplate::execute);
+            available = true;
+            log.info("Trigram catalog search enabled");
+        } catch (DataAccessException e) {
+            log.warn("Cannot prepare trigram indexes, using LIKE search: {}", e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -3,27 +3,46 @@ package controller;
 //import com.example.bookstore.dto.BookDTO;
 //import com.example.bookstore.service.BookService;
 import dto.BookDTO;
+import dto.response.BookImportResult;
+import dto.response.BookVersion;
+import dto.response.CatalogVersion;
+import dto.response.CursorPage;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import service.BookImportService;
 import service.BookService;
+import service.CatalogExporter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/books")
 @RequiredArgsConstructor
 public class BookController {
 
+    private static final int MAX_RANKED_PAGE_SIZE = 100;
+
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final CatalogExporter catalogExporter;
 
     @PostMapping
     public ResponseEntity<BookDTO> createBook(@Valid @RequestBody BookDTO bookDTO) {
@@ -31,15 +50,41 @@ public class BookController {
         return new ResponseEntity<>(createdBook, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookImportResult> importBooksJson(InputStream body) throws IOException {
+        BookImportResult result = bookImportService.importJson(body);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<BookImportResult> importBooksCsv(InputStream body) throws IOException {
+        BookImportResult result = bookImportService.importCsv(body);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id, WebRequest request) {
+        Optional<BookVersion> version = bookService.getBookVersionById(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (bookNotModified(request, version.get())) {
+            return null;
+        }
         return bookService.getBookById(id)
                 .map(book -> ResponseEntity.ok(book))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<BookDTO> getBookByIsbn(@PathVariable String isbn) {
+    public ResponseEntity<BookDTO> getBookByIsbn(@PathVariable String isbn, WebRequest request) {
+        Optional<BookVersion> version = bookService.getBookVersionByIsbn(isbn);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (bookNotModified(request, version.get())) {
+            return null;
+        }
         return bookService.getBookByIsbn(isbn)
                 .map(book -> ResponseEntity.ok(book))
                 .orElse(ResponseEntity.notFound().build());
@@ -50,7 +95,12 @@ public class BookController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            WebRequest request) {
+
+        if (catalogNotModified(request)) {
+            return null;
+        }
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -61,6 +111,33 @@ public class BookController {
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> exportBooks() {
+        ResponseBodyEmitter body = catalogExporter.start();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<BookDTO>> getBooksByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            WebRequest request) {
+
+        if (catalogNotModified(request)) {
+            return null;
+        }
+
+        CursorPage<BookDTO> books = bookService.getBooksByCursor(cursor, size, sortBy, sortDir);
+
+        return ResponseEntity.ok(books);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<BookDTO> updateBook(@PathVariable Long id,
                                               @Valid @RequestBody BookDTO bookDTO) {
@@ -80,7 +157,12 @@ public class BookController {
             @RequestParam(required = false) String author,
             @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+
+        if (catalogNotModified(request)) {
+            return null;
+        }
 
         Pageable pageable = PageRequest.of(page, size);
         Page<BookDTO> books = bookService.searchBooks(title, author, category, pageable);
@@ -88,8 +170,45 @@ public class BookController {
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping("/search/cursor")
+    public ResponseEntity<CursorPage<BookDTO>> searchBooksByCursor(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            WebRequest request) {
+
+        if (catalogNotModified(request)) {
+            return null;
+        }
+
+        CursorPage<BookDTO> books = bookService.searchBooksByCursor(title, author, category,
+                cursor, size, sortBy, sortDir);
+
+        return ResponseEntity.ok(books);
+    }
+
+    @GetMapping("/search/ranked")
+    public ResponseEntity<Page<BookDTO>> searchBooksRanked(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        // PageRequest rejects a size below 1 or a negative page, which would surface as a 500
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_RANKED_PAGE_SIZE));
+        Page<BookDTO> books = bookService.searchBooksRanked(q, pageable);
+
+        return ResponseEntity.ok(books);
+    }
+
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<BookDTO>> getBooksByCategory(@PathVariable String category) {
+    public ResponseEntity<List<BookDTO>> getBooksByCategory(@PathVariable String category, WebRequest request) {
+        if (catalogNotModified(request)) {
+            return null;
+        }
         List<BookDTO> books = bookService.getBooksByCategory(category);
         return ResponseEntity.ok(books);
     }
@@ -97,13 +216,20 @@ public class BookController {
     @GetMapping("/price-range")
     public ResponseEntity<List<BookDTO>> getBooksByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
+            @RequestParam BigDecimal maxPrice,
+            WebRequest request) {
+        if (catalogNotModified(request)) {
+            return null;
+        }
         List<BookDTO> books = bookService.getBooksByPriceRange(minPrice, maxPrice);
         return ResponseEntity.ok(books);
     }
 
     @GetMapping("/in-stock")
-    public ResponseEntity<List<BookDTO>> getBooksInStock() {
+    public ResponseEntity<List<BookDTO>> getBooksInStock(WebRequest request) {
+        if (catalogNotModified(request)) {
+            return null;
+        }
         List<BookDTO> books = bookService.getBooksInStock();
         return ResponseEntity.ok(books);
     }
@@ -117,8 +243,31 @@ public class BookController {
     }
 
     @GetMapping("/count")
-    public ResponseEntity<Map<String, Long>> getTotalBooksCount() {
+    public ResponseEntity<Map<String, Long>> getTotalBooksCount(WebRequest request) {
+        if (catalogNotModified(request)) {
+            return null;
+        }
         long count = bookService.getTotalBooksCount();
         return ResponseEntity.ok(Map.of("totalBooks", count));
     }
+
+    // checkNotModified sets the 304 status or, on a 200, the ETag/Last-Modified headers
+    private boolean bookNotModified(WebRequest request, BookVersion version) {
+        if (version.getUpdatedAt() == null) {
+            return false;
+        }
+        long lastModified = toEpochMilli(version.getUpdatedAt());
+        return request.checkNotModified(version.getId() + "-" + lastModified, lastModified);
+    }
+
+    // Collections only get an ETag: deletions do not move Last-Modified
+    private boolean catalogNotModified(WebRequest request) {
+        CatalogVersion version = bookService.getCatalogVersion();
+        long lastUpdated = version.getLastUpdated() == null ? 0 : toEpochMilli(version.getLastUpdated());
+        return request.checkNotModified("catalog-" + version.getBookCount() + "-" + lastUpdated);
+    }
+
+    private long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package controller;
+
+import dto.request.BookCopyRequest;
+import entity.BookCopy;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import service.BookCopyService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/books/{bookId}/copies")
+@RequiredArgsConstructor
+public class BookCopyController {
+
+    private final BookCopyService bookCopyService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<List<BookCopy>> getCopies(@PathVariable Long bookId) {
+        return ResponseEntity.ok(bookCopyService.getCopies(bookId));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<List<BookCopy>> addCopies(@PathVariable Long bookId,
+                                                    @Valid @RequestBody BookCopyRequest request) {
+        List<BookCopy> copies = bookCopyService.addCopies(bookId, request.getBarcodes());
+        return new ResponseEntity<>(copies, HttpStatus.CREATED);
+    }
+}
@@ -1,16 +1,23 @@
 package controller;
 
 import dto.BorrowingDto;
+import dto.request.BorrowingFilter;
+import dto.request.CheckoutRequest;
+import dto.request.ReturnBatchRequest;
+import dto.response.BorrowingResponse;
+import dto.response.CheckoutResult;
+import dto.response.CursorPage;
 import entity.Borrowing;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import service.BorrowingService;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
@@ -21,13 +28,24 @@ public class BorrowingController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ResponseEntity<List<Borrowing>> getAllBorrowings() {
-        return ResponseEntity.ok(borrowingService.getAllBorrowings());
+    public ResponseEntity<CursorPage<BorrowingResponse>> getBorrowings(
+            @RequestParam(required = false) Long memberId,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) Borrowing.BorrowingStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "borrowDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+
+        BorrowingFilter filter = new BorrowingFilter(memberId, bookId, status, borrowedFrom, borrowedTo);
+        return ResponseEntity.ok(borrowingService.searchBorrowings(filter, cursor, size, sortBy, sortDir));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ResponseEntity<Borrowing> getBorrowingById(@PathVariable UUID id) {
+    public ResponseEntity<BorrowingResponse> getBorrowingById(@PathVariable UUID id) {
         return borrowingService.getBorrowingById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -37,7 +55,7 @@ public class BorrowingController {
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
     public ResponseEntity<?> createBorrowing(@Valid @RequestBody BorrowingDto borrowingDto) {
         try {
-            Borrowing createdBorrowing = borrowingService.createBorrowing(borrowingDto);
+            BorrowingResponse createdBorrowing = borrowingService.createBorrowing(borrowingDto);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdBorrowing);
         } catch (RuntimeException e) {
             // Kembalikan pesan error dengan tipe ResponseEntity<String>
@@ -45,11 +63,23 @@ public class BorrowingController {
         }
     }
 
+    @PostMapping("/checkout")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<?> checkout(@Valid @RequestBody CheckoutRequest checkoutRequest) {
+        try {
+            CheckoutResult result = borrowingService.checkout(checkoutRequest);
+            HttpStatus status = result.getBorrowed() > 0 ? HttpStatus.CREATED : HttpStatus.OK;
+            return ResponseEntity.status(status).body(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}/return")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
     public ResponseEntity<?> returnBook(@PathVariable UUID id) {
         try {
-            Borrowing returnedBorrowing = borrowingService.returnBook(id);
+            BorrowingResponse returnedBorrowing = borrowingService.returnBook(id);
             return ResponseEntity.ok(returnedBorrowing);
         } catch (RuntimeException e) {
             // Kembalikan pesan error dengan tipe ResponseEntity<String>
@@ -57,15 +87,38 @@ public class BorrowingController {
         }
     }
 
+    @PostMapping("/returns")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<?> returnBatch(@Valid @RequestBody ReturnBatchRequest returnBatchRequest) {
+        try {
+            return ResponseEntity.ok(borrowingService.returnBatch(returnBatchRequest));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/member/{memberId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ResponseEntity<List<Borrowing>> getBorrowingsByMember(@PathVariable Long memberId) {
-        return ResponseEntity.ok(borrowingService.getBorrowingsByMember(memberId));
+    public ResponseEntity<CursorPage<BorrowingResponse>> getBorrowingsByMember(
+            @PathVariable Long memberId,
+            @RequestParam(required = false) Borrowing.BorrowingStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "borrowDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+
+        BorrowingFilter filter = new BorrowingFilter(memberId, null, status, null, null);
+        return ResponseEntity.ok(borrowingService.searchBorrowings(filter, cursor, size, sortBy, sortDir));
     }
 
     @GetMapping("/overdue")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ResponseEntity<List<Borrowing>> getOverdueBorrowings() {
-        return ResponseEntity.ok(borrowingService.getOverdueBorrowings());
+    public ResponseEntity<CursorPage<BorrowingResponse>> getOverdueBorrowings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "dueDate") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        return ResponseEntity.ok(borrowingService.getOverdueBorrowings(cursor, size, sortBy, sortDir));
     }
 }
@@ -0,0 +1,52 @@
+package controller;
+
+import dto.request.PasswordChangeRequest;
+import dto.request.UserRolesRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import service.UserService;
+
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class UserController {
+    private final UserService userService;
+
+    @PutMapping("/{username}/enabled")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> setEnabled(@PathVariable String username, @RequestParam boolean enabled) {
+        try {
+            userService.setEnabled(username, enabled);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/{username}/roles")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateRoles(@PathVariable String username,
+                                         @Valid @RequestBody UserRolesRequest request) {
+        try {
+            userService.updateRoles(username, request.getRoles());
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/{username}/password")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> changePassword(@PathVariable String username,
+                                            @Valid @RequestBody PasswordChangeRequest request) {
+        try {
+            userService.changePassword(username, request.getPassword());
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
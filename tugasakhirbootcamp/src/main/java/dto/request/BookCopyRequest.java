@@ -0,0 +1,13 @@
+package dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookCopyRequest {
+    @NotEmpty(message = "At least one barcode is required")
+    private List<@NotBlank(message = "Barcode must not be blank") String> barcodes;
+}
@@ -0,0 +1,19 @@
+package dto.request;
+
+import entity.Borrowing;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowingFilter {
+    private Long memberId;
+    private Long bookId;
+    private Borrowing.BorrowingStatus status;
+    private LocalDate borrowedFrom;
+    private LocalDate borrowedTo;
+}
@@ -0,0 +1,18 @@
+package dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CheckoutRequest {
+    @NotNull(message = "Member ID is required")
+    private Long memberId;
+
+    @NotEmpty(message = "At least one book is required")
+    @Size(max = 20, message = "A checkout can contain at most 20 books")
+    private List<@NotNull(message = "Book ID must not be null") Long> bookIds;
+}
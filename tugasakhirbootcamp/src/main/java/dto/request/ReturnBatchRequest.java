@@ -0,0 +1,19 @@
+package dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class ReturnBatchRequest {
+    @Size(max = 1000, message = "A batch can contain at most 1000 borrowing IDs")
+    private List<@NotNull(message = "Borrowing ID must not be null") UUID> borrowingIds = new ArrayList<>();
+
+    @Size(max = 1000, message = "A batch can contain at most 1000 barcodes")
+    private List<@NotBlank(message = "Barcode must not be blank") String> barcodes = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+public class UserRolesRequest {
+    @NotEmpty(message = "At least one role is required")
+    private Set<@NotBlank(message = "Role name must not be blank") String> roles;
+}
@@ -0,0 +1,13 @@
+package dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BookVersion {
+    private Long id;
+    private LocalDateTime updatedAt;
+}
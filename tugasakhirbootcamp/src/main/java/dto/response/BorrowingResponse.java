@@ -0,0 +1,29 @@
+package dto.response;
+
+import entity.Borrowing;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowingResponse {
+    private UUID id;
+    private Long bookId;
+    private String bookTitle;
+    private String bookIsbn;
+    private Long memberId;
+    private String memberName;
+    private String copyBarcode;
+    private LocalDate borrowDate;
+    private LocalDate dueDate;
+    private LocalDate returnDate;
+    private Borrowing.BorrowingStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
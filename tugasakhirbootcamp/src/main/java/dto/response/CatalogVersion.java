@@ -0,0 +1,13 @@
+package dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class CatalogVersion {
+    private long bookCount;
+    private LocalDateTime lastUpdated;
+}
@@ -0,0 +1,31 @@
+package dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class CheckoutResult {
+    private Long memberId;
+    private int borrowed;
+    private int failed;
+    private List<ItemResult> items = new ArrayList<>();
+
+    public enum ItemStatus {
+        BORROWED, NOT_FOUND, UNAVAILABLE, DUPLICATE
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Long bookId;
+        private ItemStatus status;
+        private String message;
+        private BorrowingResponse borrowing;
+    }
+}
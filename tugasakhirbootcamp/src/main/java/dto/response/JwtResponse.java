@@ -8,6 +8,7 @@ import lombok.Data;
 public class JwtResponse {
     private String token;
     private String type = "Bearer";
+    private String refreshToken;
     private String username;
     private String email;
 
@@ -16,4 +17,9 @@ public class JwtResponse {
         this.username = username;
         this.email = email;
     }
+
+    public JwtResponse(String token, String refreshToken, String username, String email) {
+        this(token, username, email);
+        this.refreshToken = refreshToken;
+    }
 }
\ No newline at end of file
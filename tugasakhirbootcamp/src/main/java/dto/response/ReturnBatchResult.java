@@ -0,0 +1,31 @@
+package dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class ReturnBatchResult {
+    private int returned;
+    private int failed;
+    private List<ItemResult> items = new ArrayList<>();
+
+    public enum ItemStatus {
+        RETURNED, NOT_FOUND, ALREADY_RETURNED, DUPLICATE
+    }
+
+    // reference is the borrowing ID or barcode exactly as it was sent
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private String reference;
+        private UUID borrowingId;
+        private ItemStatus status;
+    }
+}
@@ -25,20 +25,29 @@ import java.util.UUID;
                 @Index(name = "idx_borrowing_updated_at", columnList = "updated_at"),
                 @Index(name = "idx_borrowing_status", columnList = "status"),
                 @Index(name = "idx_borrowing_borrow_date", columnList = "borrow_date"),
-                @Index(name = "idx_borrowing_due_date", columnList = "due_date")
+                @Index(name = "idx_borrowing_due_date", columnList = "due_date"),
+                @Index(name = "idx_borrowing_status_due_date", columnList = "status, due_date"),
+                @Index(name = "idx_borrowing_member_status", columnList = "member_id, status"),
+                @Index(name = "idx_borrowing_book_status", columnList = "book_id, status")
         }
 )
 public class Borrowing {
+    // Time-ordered so inserts append to the primary key index
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
     @NotNull(message = "Book is required")
     private Book book;
 
-    @ManyToOne
+    // Set only for titles lent copy by copy
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "member_id", nullable = false)
     @NotNull(message = "Member is required")
     private Member member;
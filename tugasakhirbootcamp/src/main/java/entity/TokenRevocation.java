@@ -0,0 +1,45 @@
+package entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.Instant;
+
+/**
+ * Durable copy of an access token revocation, loaded into the in-memory revocation list at
+ * startup and by other instances. A row revokes either one token by its id, or every token of
+ * a user issued up to {@code revokedAt}. Rows are deleted once nothing they match can still be valid.
+ */
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "m_token_revocations",
+        indexes = {
+                @Index(name = "idx_token_revocation_revoked_at", columnList = "revoked_at"),
+                @Index(name = "idx_token_revocation_expires_at", columnList = "expires_at")
+        }
+)
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    @Column(length = 50)
+    private String username;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,50 @@
+package entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDv7 identifiers (RFC 9562). The top 48 bits hold the Unix time in
+ * milliseconds, so new keys land at the right edge of the primary key index instead of on
+ * random pages. The 12-bit {@code rand_a} field is a counter within the millisecond, which
+ * keeps ids from one JVM strictly increasing; the remaining 62 bits are random.
+ * Ids are unique and hard to enumerate, but not secret.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final long VARIANT_RFC = 0x8000000000000000L;
+
+    // Last issued (millis << 12 | counter); a counter overflow borrows the next millisecond
+    private static final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return nextUuid();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+
+    public static UUID nextUuid() {
+        long candidate = System.currentTimeMillis() << COUNTER_BITS;
+        long state = lastTimestampAndCounter.accumulateAndGet(candidate, (last, now) -> Math.max(last + 1, now));
+
+        long millis = state >>> COUNTER_BITS;
+        long counter = state & ((1L << COUNTER_BITS) - 1);
+        long mostSignificant = (millis << 16) | VERSION_7 | counter;
+        long leastSignificant = (ThreadLocalRandom.current().nextLong() & VARIANT_MASK) | VARIANT_RFC;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,7 @@
+package exception;
+
+public class CopyRegistrationConflictException extends RuntimeException {
+    public CopyRegistrationConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,6 @@
+package exception;
+public class DuplicateBarcodeException extends RuntimeException {
+    public DuplicateBarcodeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package exception;
+
+public class ExportUnavailableException extends RuntimeException {
+    public ExportUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package exception;
+
+public class StockManagedByCopiesException extends RuntimeException {
+    public StockManagedByCopiesException(String message) {
+        super(message);
+    }
+}
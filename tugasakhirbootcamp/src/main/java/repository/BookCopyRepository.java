@@ -0,0 +1,40 @@
+package repository;
+
+import entity.BookCopy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+
+    // SKIP LOCKED: concurrent checkouts of one title each take a different free copy instead of queueing
+    @Query(value = "SELECT * FROM m_book_copies WHERE book_id = :bookId AND status = 'AVAILABLE' " +
+            "LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<BookCopy> claimAvailableCopy(@Param("bookId") Long bookId);
+
+    // Returns 0 when the borrowing was not lent from a copy
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookCopy c SET c.status = entity.BookCopy.CopyStatus.AVAILABLE, c.updatedAt = LOCAL DATETIME " +
+            "WHERE c.id = (SELECT b.copy.id FROM Borrowing b WHERE b.id = :borrowingId)")
+    int releaseCopyOf(@Param("borrowingId") UUID borrowingId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookCopy c SET c.status = entity.BookCopy.CopyStatus.AVAILABLE, c.updatedAt = LOCAL DATETIME " +
+            "WHERE c.id IN (SELECT b.copy.id FROM Borrowing b WHERE b.id IN :borrowingIds)")
+    int releaseCopiesOf(@Param("borrowingIds") Collection<UUID> borrowingIds);
+
+    boolean existsByBook_Id(Long bookId);
+
+    List<BookCopy> findByBook_IdOrderById(Long bookId);
+
+    @Query("SELECT c.barcode FROM BookCopy c WHERE c.barcode IN :barcodes")
+    List<String> findExistingBarcodes(@Param("barcodes") Collection<String> barcodes);
+}
@@ -0,0 +1,16 @@
+package repository;
+
+import dto.BookDTO;
+import entity.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface BookProjectionRepository {
+
+    Page<BookDTO> findAllProjected(Specification<Book> specification, Pageable pageable);
+
+    List<BookDTO> findAllProjected(Specification<Book> specification);
+}
@@ -0,0 +1,77 @@
+package repository;
+
+import dto.BookDTO;
+import entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * Runs {@link Specification} filters as {@code SELECT new BookDTO(...)} criteria queries,
+ * so dynamic searches get the same projection read path as the JPQL queries.
+ */
+class BookProjectionRepositoryImpl implements BookProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<BookDTO> findAllProjected(Specification<Book> specification, Pageable pageable) {
+        TypedQuery<BookDTO> query = entityManager.createQuery(projectionQuery(specification, pageable.getSort()));
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(specification));
+    }
+
+    @Override
+    public List<BookDTO> findAllProjected(Specification<Book> specification) {
+        return entityManager.createQuery(projectionQuery(specification, Sort.unsorted())).getResultList();
+    }
+
+    private CriteriaQuery<BookDTO> projectionQuery(Specification<Book> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookDTO> query = cb.createQuery(BookDTO.class);
+        Root<Book> root = query.from(Book.class);
+
+        query.select(cb.construct(BookDTO.class,
+                root.get("id"), root.get("title"), root.get("author"), root.get("isbn"), root.get("price"),
+                root.get("description"), root.get("stock"), root.get("publishedYear"), root.get("category"),
+                root.get("updatedAt")));
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return query;
+    }
+
+    private long count(Specification<Book> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+
+        query.select(cb.count(root));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -1,40 +1,127 @@
 package repository;//import com.example.bookstore.entity.Book;
+import dto.BookDTO;
+import dto.response.BookVersion;
+import dto.response.CatalogVersion;
 import entity.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookProjectionRepository {
+
+    // Constructor projection: rows go straight into BookDTO without managed entities or dirty checking
+    String BOOK_DTO_SELECT = "SELECT new dto.BookDTO(b.id, b.title, b.author, b.isbn, b.price, " +
+            "b.description, b.stock, b.publishedYear, b.category, b.updatedAt) FROM Book b";
+
+    String SEARCH_FILTER = "(:title IS NULL OR LOWER(b.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
+            "(:author IS NULL OR LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%'))) AND " +
+            "(:category IS NULL OR LOWER(b.category) = LOWER(:category))";
 
     Optional<Book> findByIsbn(String isbn);
 
-    List<Book> findByAuthorContainingIgnoreCase(String author);
+    @Query(BOOK_DTO_SELECT + " WHERE LOWER(b.category) = LOWER(:category)")
+    List<BookDTO> findByCategoryIgnoreCase(@Param("category") String category);
 
-    List<Book> findByTitleContainingIgnoreCase(String title);
+    @Query(BOOK_DTO_SELECT + " WHERE b.price BETWEEN :minPrice AND :maxPrice")
+    List<BookDTO> findByPriceBetween(@Param("minPrice") BigDecimal minPrice,
+                                     @Param("maxPrice") BigDecimal maxPrice);
 
-    List<Book> findByCategoryIgnoreCase(String category);
+    @Query(BOOK_DTO_SELECT + " WHERE b.stock > 0")
+    List<BookDTO> findBooksInStock();
 
-    List<Book> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+    @Query(value = BOOK_DTO_SELECT, countQuery = "SELECT COUNT(b) FROM Book b")
+    Page<BookDTO> findAllProjectedBy(Pageable pageable);
 
-    @Query("SELECT b FROM Book b WHERE b.stock > 0")
-    List<Book> findBooksInStock();
+    @Query(BOOK_DTO_SELECT)
+    List<BookDTO> findAllProjectedBy();
 
-    @Query("SELECT b FROM Book b WHERE " +
-            "(:title IS NULL OR LOWER(b.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
-            "(:author IS NULL OR LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%'))) AND " +
-            "(:category IS NULL OR LOWER(b.category) = LOWER(:category))")
-    Page<Book> searchBooks(@Param("title") String title,
-                           @Param("author") String author,
-                           @Param("category") String category,
-                           Pageable pageable);
+    @Query(value = BOOK_DTO_SELECT + " WHERE " + SEARCH_FILTER,
+            countQuery = "SELECT COUNT(b) FROM Book b WHERE " + SEARCH_FILTER)
+    Page<BookDTO> searchBooks(@Param("title") String title,
+                              @Param("author") String author,
+                              @Param("category") String category,
+                              Pageable pageable);
 
     boolean existsByIsbn(String isbn);
+
+    // Conditional stock changes: the row lock serialises concurrent checkouts and the WHERE clause
+    // is re-evaluated after it, so stock cannot go negative. Returns the affected row count.
+    // Rows are locked in id order so carts that share titles cannot deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<Book> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.stock = b.stock - 1, b.updatedAt = LOCAL DATETIME WHERE b.id = :id AND b.stock > 0")
+    int decrementStock(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.stock = b.stock + 1, b.updatedAt = LOCAL DATETIME WHERE b.id = :id")
+    int incrementStock(@Param("id") Long id);
+
+    // One statement restores the stock of every shared-stock title in a batch of returns
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.stock = b.stock + (SELECT CAST(COUNT(r) AS Integer) FROM Borrowing r " +
+            "WHERE r.book.id = b.id AND r.id IN :borrowingIds AND r.copy IS NULL), " +
+            "b.updatedAt = LOCAL DATETIME WHERE b.id IN :ids")
+    int incrementStockForReturns(@Param("ids") Collection<Long> ids,
+                                 @Param("borrowingIds") Collection<UUID> borrowingIds);
+
+    // Stock of titles lent per copy is derived from the copies that are available
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.stock = (SELECT CAST(COUNT(c) AS Integer) FROM BookCopy c " +
+            "WHERE c.book.id = b.id AND c.status = entity.BookCopy.CopyStatus.AVAILABLE), " +
+            "b.updatedAt = LOCAL DATETIME WHERE b.id IN :ids")
+    int recalculateStockFromCopies(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.isbn = :isbn")
+    Optional<Long> findIdByIsbn(@Param("isbn") String isbn);
+
+    // Validators for conditional GET, read without loading the whole row
+    @Query("SELECT new dto.response.BookVersion(b.id, b.updatedAt) FROM Book b WHERE b.id = :id")
+    Optional<BookVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new dto.response.BookVersion(b.id, b.updatedAt) FROM Book b WHERE b.isbn = :isbn")
+    Optional<BookVersion> findVersionByIsbn(@Param("isbn") String isbn);
+
+    // Inserts and updates move MAX(updatedAt); deletes change the count
+    @Query("SELECT new dto.response.CatalogVersion(COUNT(b), MAX(b.updatedAt)) FROM Book b")
+    CatalogVersion findCatalogVersion();
+
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    @Query(BOOK_DTO_SELECT + " WHERE b.id IN :ids")
+    List<BookDTO> findByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(BOOK_DTO_SELECT + " WHERE b.isbn IN :isbns")
+    List<BookDTO> findByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    // Server-side cursor: PostgreSQL only honours the fetch size inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(BOOK_DTO_SELECT + " ORDER BY b.id")
+    Stream<BookDTO> streamAllByOrderById();
 }
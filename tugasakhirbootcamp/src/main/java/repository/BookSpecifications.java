@@ -0,0 +1,47 @@
+package repository;
+
+import entity.Book;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class BookSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private BookSpecifications() {
+    }
+
+    /**
+     * Builds the catalog search predicate with only the filters that were actually supplied,
+     * so PostgreSQL can match every {@code lower(col) LIKE} against its trigram index instead
+     * of planning a generic {@code :param IS NULL OR ...} branch.
+     */
+    public static Specification<Book> search(String title, String author, String category) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (StringUtils.hasText(title)) {
+                predicates.add(cb.like(cb.lower(root.get("title")), containsPattern(title), LIKE_ESCAPE));
+            }
+            if (StringUtils.hasText(author)) {
+                predicates.add(cb.like(cb.lower(root.get("author")), containsPattern(author), LIKE_ESCAPE));
+            }
+            if (StringUtils.hasText(category)) {
+                predicates.add(cb.equal(cb.lower(root.get("category")), category.toLowerCase(Locale.ROOT)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static String containsPattern(String value) {
+        String escaped = value.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -1,19 +1,87 @@
 package repository;
 
+import dto.response.BorrowingResponse;
 import entity.Borrowing;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID; // Import UUID
 
 @Repository
-public interface BorrowingRepository extends JpaRepository<Borrowing, UUID> { // Menggunakan UUID sebagai tipe ID
+public interface BorrowingRepository extends JpaRepository<Borrowing, UUID>, BorrowingSearchRepository { // Menggunakan UUID sebagai tipe ID
 
-    List<Borrowing> findByMember_Id(Long memberId); // Perbaikan: Gunakan member_Id sesuai relasi
+    // One joined query per call: no Borrowing entities are loaded and no association is fetched lazily
+    String RESPONSE_SELECT = "SELECT new dto.response.BorrowingResponse(b.id, bk.id, bk.title, bk.isbn, " +
+            "m.id, m.name, c.barcode, b.borrowDate, b.dueDate, b.returnDate, b.status, b.createdAt, b.updatedAt) " +
+            "FROM Borrowing b JOIN b.book bk JOIN b.member m LEFT JOIN b.copy c";
 
-    @Query("SELECT b FROM Borrowing b WHERE b.dueDate < :currentDate AND b.status = 'BORROWED'")
-    List<Borrowing> findOverdueBorrowings(LocalDate currentDate);
+    @Query(RESPONSE_SELECT + " WHERE b.id = :id")
+    Optional<BorrowingResponse> findResponseById(@Param("id") UUID id);
+
+    @Query("SELECT MIN(b.borrowDate) FROM Borrowing b WHERE b.status IN " +
+            "(entity.Borrowing.BorrowingStatus.BORROWED, entity.Borrowing.BorrowingStatus.OVERDUE)")
+    Optional<LocalDate> findOldestActiveBorrowDate();
+
+    // Keyset page of borrowings past their due date that the overdue sweeper has not marked yet
+    @Query("SELECT b.id FROM Borrowing b WHERE b.status = entity.Borrowing.BorrowingStatus.BORROWED " +
+            "AND b.dueDate < :today AND b.borrowDate >= :since AND b.id > :after ORDER BY b.id")
+    List<UUID> findOverdueIdsAfter(@Param("today") LocalDate today, @Param("since") LocalDate since,
+                                   @Param("after") UUID after, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Borrowing b SET b.status = entity.Borrowing.BorrowingStatus.OVERDUE, b.updatedAt = LOCAL DATETIME " +
+            "WHERE b.id IN :ids AND b.status = entity.Borrowing.BorrowingStatus.BORROWED")
+    int markOverdue(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT b.book.id FROM Borrowing b WHERE b.id = :id")
+    Optional<Long> findBookIdById(@Param("id") UUID id);
+
+    // Only one concurrent return of the same borrowing can match, so stock is restored once
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Borrowing b SET b.status = entity.Borrowing.BorrowingStatus.RETURNED, b.returnDate = :returnDate, " +
+            "b.updatedAt = LOCAL DATETIME WHERE b.id = :id AND b.status IN " +
+            "(entity.Borrowing.BorrowingStatus.BORROWED, entity.Borrowing.BorrowingStatus.OVERDUE)")
+    int markReturned(@Param("id") UUID id, @Param("returnDate") LocalDate returnDate);
+
+    // Drop-box returns scanned by copy barcode
+    @Query("SELECT c.barcode AS barcode, b.id AS borrowingId FROM Borrowing b JOIN b.copy c " +
+            "WHERE c.barcode IN :barcodes AND b.status IN " +
+            "(entity.Borrowing.BorrowingStatus.BORROWED, entity.Borrowing.BorrowingStatus.OVERDUE)")
+    List<CopyLoan> findActiveLoansByBarcodes(@Param("barcodes") Collection<String> barcodes);
+
+    // Locked in id order so that overlapping batches queue instead of deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Borrowing b WHERE b.id IN :ids AND b.status IN " +
+            "(entity.Borrowing.BorrowingStatus.BORROWED, entity.Borrowing.BorrowingStatus.OVERDUE) ORDER BY b.id")
+    List<Borrowing> findReturnableForUpdate(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT b.id FROM Borrowing b WHERE b.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    // Callers lock the rows with findReturnableForUpdate first
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Borrowing b SET b.status = entity.Borrowing.BorrowingStatus.RETURNED, b.returnDate = :returnDate, " +
+            "b.updatedAt = LOCAL DATETIME WHERE b.id IN :ids")
+    int markAllReturned(@Param("ids") Collection<UUID> ids, @Param("returnDate") LocalDate returnDate);
+
+    // Open loans taken from the stock counter rather than from a registered copy
+    @Query("SELECT COUNT(b) FROM Borrowing b WHERE b.book.id = :bookId AND b.copy IS NULL " +
+            "AND b.status <> entity.Borrowing.BorrowingStatus.RETURNED")
+    long countOpenCounterLoans(@Param("bookId") Long bookId);
+
+    interface CopyLoan {
+        String getBarcode();
+
+        UUID getBorrowingId();
+    }
 }
\ No newline at end of file
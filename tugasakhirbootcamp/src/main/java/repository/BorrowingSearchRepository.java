@@ -0,0 +1,17 @@
+package repository;
+
+import dto.request.BorrowingFilter;
+import dto.response.BorrowingResponse;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface BorrowingSearchRepository {
+
+    /**
+     * Returns up to {@code limit} borrowings matching the filter that sort after the given
+     * position. The sort must name one attribute; the id is appended as the tie-breaker.
+     */
+    List<BorrowingResponse> findPage(BorrowingFilter filter, Sort.Order order, KeysetScrollPosition position, int limit);
+}
@@ -1,5 +1,6 @@
 package secruity.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,6 +17,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import service.UserService;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -24,16 +26,18 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserService userService;
+    private final TokenRevocationList tokenRevocationList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userService.loadUserByUsername(username);
+            Optional<Claims> claims = jwt == null ? Optional.empty() : jwtUtils.parseClaims(jwt);
+            if (claims.isPresent() && !tokenRevocationList.isRevoked(claims.get())) {
+                // Role-claim tokens carry everything needed, so only older tokens cost a user lookup
+                UserDetails userDetails = jwtUtils.getUserDetailsFromClaims(claims.get())
+                        .orElseGet(() -> userService.loadUserByUsername(claims.get().getSubject()));
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -1,60 +1,147 @@
 package secruity.jwt;
 
+import entity.Role;
 import entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
 @Slf4j
 public class JwtUtils {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String SESSION_ID_CLAIM = "sid";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expirationMs}")
     private int jwtExpirationMs;
 
+    // Role-claim tokens are trusted without a user lookup, so they are kept short-lived
+    @Value("${jwt.role-claims.enabled:false}")
+    private boolean roleClaimsEnabled;
+
+    @Value("${jwt.role-claims.expirationMs:900000}")
+    private int roleClaimsExpirationMs;
+
+    // Built once; both are immutable and shared by all request threads
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
+        return generateJwtToken(authentication, null);
+    }
+
+    /**
+     * Issues an access token bound to a login session, identified by its refresh token family,
+     * so that logging out can end the session without revoking the user's other sessions.
+     */
+    public String generateJwtToken(Authentication authentication, UUID sessionId) {
         User userPrincipal = (User) authentication.getPrincipal();
+        Date now = new Date();
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
-                .compact();
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(now);
+        if (sessionId != null) {
+            builder.claim(SESSION_ID_CLAIM, sessionId.toString());
+        }
+        if (roleClaimsEnabled) {
+            builder.claim(USER_ID_CLAIM, userPrincipal.getId().toString())
+                    .claim(ROLES_CLAIM, userPrincipal.getAuthorities().stream()
+                            .map(GrantedAuthority::getAuthority)
+                            .toList())
+                    .setExpiration(new Date(now.getTime() + roleClaimsExpirationMs));
+        } else {
+            builder.setExpiration(new Date(now.getTime() + jwtExpirationMs));
+        }
+        return builder.signWith(signingKey, SignatureAlgorithm.HS256).compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    /**
+     * Builds the principal from a role-claim token without loading the user. Returns empty
+     * when role claims are disabled or the token was issued without them.
+     */
+    public Optional<UserDetails> getUserDetailsFromClaims(Claims claims) {
+        if (!roleClaimsEnabled || !(claims.get(ROLES_CLAIM) instanceof List<?> roleNames)
+                || claims.get(USER_ID_CLAIM) == null) {
+            return Optional.empty();
+        }
+
+        User user = new User();
+        user.setId(UUID.fromString(claims.get(USER_ID_CLAIM, String.class)));
+        user.setUsername(claims.getSubject());
+        Set<Role> roles = new HashSet<>();
+        for (Object roleName : roleNames) {
+            Role role = new Role();
+            role.setName(String.valueOf(roleName));
+            roles.add(role);
+        }
+        user.setRoles(roles);
+        return Optional.of(user);
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+    public Optional<UUID> getSessionId(Claims claims) {
+        return Optional.ofNullable(claims.get(SESSION_ID_CLAIM, String.class)).map(UUID::fromString);
     }
 
-    public boolean validateJwtToken(String authToken) {
+    // Longest lifetime of any token this instance issues
+    public long getMaxTokenLifetimeMs() {
+        return Math.max(jwtExpirationMs, roleClaimsEnabled ? roleClaimsExpirationMs : 0);
+    }
+
+    /**
+     * Verifies the signature and expiry of a signed token in a single parse and returns its
+     * claims, or empty if the token is not valid.
+     */
+    public Optional<Claims> parseClaims(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            return Optional.of(jwtParser.parseClaimsJws(token).getBody());
         } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
+            log.warn("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
+            log.warn("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
+            log.warn("JWT token is unsupported: {}", e.getMessage());
+        } catch (SignatureException e) {
+            log.warn("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
+            log.warn("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseClaims(authToken).isPresent();
     }
-}
\ No newline at end of file
+}
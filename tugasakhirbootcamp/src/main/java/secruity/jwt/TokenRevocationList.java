@@ -0,0 +1,123 @@
+package secruity.jwt;
+
+import entity.TokenRevocation;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import repository.TokenRevocationRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens revoked before they expire, checked by {@link AuthTokenFilter} on every request
+ * without touching the database. A single token is revoked by its id; all tokens of a user
+ * issued up to a point in time are revoked with one entry per user. Entries are dropped once
+ * every token they could match has expired.
+ * <p>
+ * Every revocation is also written to m_token_revocations. The in-memory maps are rebuilt
+ * from it at startup and pick up rows written by other instances on each sync.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationList {
+
+    private final JwtUtils jwtUtils;
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    // Token id -> expiry in epoch millis
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // Username -> tokens issued at or before this epoch milli are revoked
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    // How far each sync reaches back before the previous one, to catch rows that committed late
+    @Value("${jwt.revocation.sync-overlap-ms:60000}")
+    private long syncOverlapMs;
+
+    private Instant syncedUntil;
+
+    public boolean isRevoked(Claims claims) {
+        if (claims.getId() != null && revokedTokens.containsKey(claims.getId())) {
+            return true;
+        }
+        Long before = revokedBefore.get(claims.getSubject());
+        // iat has second precision, so a token issued in the same second as the revocation is revoked too
+        return before != null && (claims.getIssuedAt() == null || claims.getIssuedAt().getTime() <= before);
+    }
+
+    public void revoke(Claims claims) {
+        if (claims.getId() != null) {
+            long expiresAt = claims.getExpiration() != null
+                    ? claims.getExpiration().getTime()
+                    : System.currentTimeMillis() + jwtUtils.getMaxTokenLifetimeMs();
+            store(TokenRevocation.builder()
+                    .tokenId(claims.getId())
+                    .revokedAt(Instant.now())
+                    .expiresAt(Instant.ofEpochMilli(expiresAt))
+                    .build());
+        } else {
+            revokeAllFor(claims.getSubject());
+        }
+    }
+
+    public void revokeAllFor(String username) {
+        Instant now = Instant.now();
+        store(TokenRevocation.builder()
+                .username(username)
+                .revokedAt(now)
+                .expiresAt(now.plusMillis(jwtUtils.getMaxTokenLifetimeMs()))
+                .build());
+    }
+
+    /**
+     * Applies revocations stored since the last sync; the first run after startup loads every
+     * revocation that has not expired yet. {@code revokedAt} is set before the row commits, so a
+     * row can become visible after a sync that already passed its timestamp; each sync therefore
+     * re-reads the overlap before the previous one. Applying a revocation twice is harmless.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:10000}")
+    public synchronized void sync() {
+        Instant now = Instant.now();
+        Instant since = syncedUntil == null ? Instant.EPOCH : syncedUntil.minusMillis(syncOverlapMs);
+        List<TokenRevocation> revocations = tokenRevocationRepository
+                .findByRevokedAtGreaterThanEqualAndExpiresAtAfter(since, now);
+        revocations.forEach(this::apply);
+        syncedUntil = now;
+        if (!revocations.isEmpty()) {
+            log.debug("Applied {} stored token revocations", revocations.size());
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    @Transactional
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+        revokedBefore.values().removeIf(before -> before + jwtUtils.getMaxTokenLifetimeMs() < now);
+        tokenRevocationRepository.deleteExpired(Instant.ofEpochMilli(now));
+    }
+
+    // Applied locally first, so this instance rejects the token even if the write fails
+    private void store(TokenRevocation revocation) {
+        apply(revocation);
+        tokenRevocationRepository.save(revocation);
+    }
+
+    private void apply(TokenRevocation revocation) {
+        if (revocation.getTokenId() != null) {
+            revokedTokens.put(revocation.getTokenId(), revocation.getExpiresAt().toEpochMilli());
+        } else {
+            revokedBefore.merge(revocation.getUsername(), revocation.getRevokedAt().toEpochMilli(), Math::max);
+        }
+    }
+}
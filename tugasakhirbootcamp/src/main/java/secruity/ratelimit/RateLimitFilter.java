@@ -0,0 +1,112 @@
+package secruity.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits request rates per client so one misbehaving caller cannot starve the others.
+ * Runs after AuthTokenFilter, so authenticated requests are keyed by username and anonymous
+ * ones by client address. The authentication endpoints have their own, stricter limit keyed
+ * by client address, since they are called before there is a user to key by.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH = "/api/auth/";
+    private static final String HEALTH_PATH = "/actuator/health";
+
+    private final boolean enabled;
+    private final TokenBucketRateLimiter authLimiter;
+    private final TokenBucketRateLimiter defaultLimiter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(MeterRegistry meterRegistry,
+                           ObjectMapper objectMapper,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.auth.requests-per-second:1}") double authRate,
+                           @Value("${app.rate-limit.auth.burst:5}") int authBurst,
+                           @Value("${app.rate-limit.default.requests-per-second:20}") double defaultRate,
+                           @Value("${app.rate-limit.default.burst:40}") int defaultBurst) {
+        this.enabled = enabled;
+        this.authLimiter = new TokenBucketRateLimiter(authRate, authBurst);
+        this.defaultLimiter = new TokenBucketRateLimiter(defaultRate, defaultBurst);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("http.ratelimit.buckets", authLimiter, TokenBucketRateLimiter::size)
+                .tag("policy", "auth").register(meterRegistry);
+        Gauge.builder("http.ratelimit.buckets", defaultLimiter, TokenBucketRateLimiter::size)
+                .tag("policy", "default").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith(HEALTH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean authEndpoint = request.getRequestURI().startsWith(AUTH_PATH);
+        String policy = authEndpoint ? "auth" : "default";
+        long waitNanos = authEndpoint
+                ? authLimiter.tryAcquire(request.getRemoteAddr())
+                : defaultLimiter.tryAcquire(clientKey(request));
+
+        if (waitNanos == 0) {
+            outcome(policy, "allowed").increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        outcome(policy, "rejected").increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", "Rate limit exceeded, retry in " + retryAfterSeconds + " s");
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private Counter outcome(String policy, String outcome) {
+        return Counter.builder("http.ratelimit.requests")
+                .tag("policy", policy)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package secruity.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key, implemented as the generic cell rate algorithm: each bucket is a single
+ * AtomicLong holding the theoretical arrival time of the next request, updated with a CAS loop,
+ * so checking a request takes no lock. A request is allowed while that time is no more than
+ * the burst tolerance ahead of now.
+ * <p>
+ * A bucket whose arrival time has fallen behind the clock is full again and behaves exactly
+ * like a new one, so such idle keys are dropped by a sweep that one caller runs at most once
+ * per eviction interval. A request racing with the sweep may use a dropped bucket, which can
+ * let that key through at most one extra request.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextEviction;
+
+    public TokenBucketRateLimiter(double requestsPerSecond, int burst, LongSupplier nanoClock) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.nanoClock = nanoClock;
+        this.nextEviction = new AtomicLong(nanoClock.getAsLong() + EVICTION_INTERVAL_NANOS);
+    }
+
+    public TokenBucketRateLimiter(double requestsPerSecond, int burst) {
+        this(requestsPerSecond, burst, System::nanoTime);
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        evictIdleIfDue(now);
+
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long arrival = bucket.get();
+            long theoretical = arrival - now > 0 ? arrival : now;
+            long ahead = theoretical - now;
+            if (ahead > burstToleranceNanos) {
+                return ahead - burstToleranceNanos;
+            }
+            if (bucket.compareAndSet(arrival, theoretical + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evictIdleIfDue(long now) {
+        long due = nextEviction.get();
+        if (now - due < 0 || !nextEviction.compareAndSet(due, now + EVICTION_INTERVAL_NANOS)) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+}
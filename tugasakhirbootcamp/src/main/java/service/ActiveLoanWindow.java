@@ -0,0 +1,35 @@
+package service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import repository.BorrowingRepository;
+
+import java.time.LocalDate;
+
+/**
+ * Oldest borrow date of any loan that is still BORROWED or OVERDUE. New loans are dated today,
+ * so a stale value can only be too old, never too recent, and queries for open loans can use it
+ * as a lower bound on {@code borrow_date}. On a partitioned {@code m_borrowings} that bound lets
+ * PostgreSQL skip the partitions that only hold settled history. Refreshed by every overdue sweep.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveLoanWindow {
+
+    private static final LocalDate UNBOUNDED = LocalDate.of(1970, 1, 1);
+
+    private final BorrowingRepository borrowingRepository;
+
+    private volatile LocalDate since = UNBOUNDED;
+
+    public LocalDate since() {
+        return since;
+    }
+
+    public LocalDate refresh() {
+        // A loan committed just after midnight may still carry yesterday's date
+        since = borrowingRepository.findOldestActiveBorrowDate()
+                .orElseGet(() -> LocalDate.now().minusDays(1));
+        return since;
+    }
+}
@@ -1,10 +1,12 @@
 package service;
 
 import dto.request.LoginRequest;
+import dto.request.RefreshTokenRequest;
 import dto.request.RegisterRequest;
 import dto.response.JwtResponse;
 import entity.Role;
 import entity.User;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -29,6 +31,8 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     public User registerUser(RegisterRequest registerRequest) {
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
@@ -42,7 +46,8 @@ public class AuthService {
         User user = new User();
         user.setUsername(registerRequest.getUsername());
         user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        user.setPassword(passwordHashingExecutor.execute("encode",
+                () -> passwordEncoder.encode(registerRequest.getPassword())));
 
         Set<Role> roles = new HashSet<>();
         // Default role for new users, e.g., MEMBER
@@ -55,14 +60,41 @@ public class AuthService {
     }
 
     public JwtResponse authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        Authentication authentication = passwordHashingExecutor.execute("verify", () ->
+                authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-
         User userDetails = (User) authentication.getPrincipal();
+        RefreshTokenService.IssuedRefreshToken refreshToken = refreshTokenService.issue(userDetails);
+        String jwt = jwtUtils.generateJwtToken(authentication, refreshToken.sessionId());
+
+        return new JwtResponse(jwt, refreshToken.token(), userDetails.getUsername(), userDetails.getEmail());
+    }
+
+    /**
+     * Issues a new access token and rotates the refresh token, without checking the password again.
+     */
+    public JwtResponse refresh(RefreshTokenRequest refreshTokenRequest) {
+        RefreshTokenService.IssuedRefreshToken refreshToken =
+                refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
+        User user = refreshToken.user();
+        String jwt = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()), refreshToken.sessionId());
 
-        return new JwtResponse(jwt, userDetails.getUsername(), userDetails.getEmail());
+        return new JwtResponse(jwt, refreshToken.token(), user.getUsername(), user.getEmail());
+    }
+
+    /**
+     * Ends the session of the given token, or every session of its user when allSessions is set.
+     */
+    public void logout(String token, boolean allSessions) {
+        Claims claims = jwtUtils.parseClaims(token)
+                .orElseThrow(() -> new RuntimeException("Error: Invalid token"));
+        if (allSessions) {
+            refreshTokenService.endAllSessions(claims.getSubject());
+        } else {
+            refreshTokenService.endSession(claims);
+        }
     }
 }
\ No newline at end of file
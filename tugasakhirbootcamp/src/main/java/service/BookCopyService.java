@@ -0,0 +1,185 @@
+package service;
+
+import entity.Book;
+import entity.BookCopy;
+import exception.BookNotFoundException;
+import exception.CopyRegistrationConflictException;
+import exception.DuplicateBarcodeException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import repository.BookCopyRepository;
+import repository.BookRepository;
+import repository.BorrowingRepository;
+import service.cache.BookCache;
+import service.search.CatalogSearchIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-copy inventory. Checkouts of titles with registered copies claim a free copy row instead
+ * of decrementing the shared {@code m_books.stock} counter, so they do not queue on one row lock.
+ * The counter is recalculated from the copies in the background, coalescing bursts of checkouts
+ * of the same title into one update.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookCopyService {
+
+    private final BookCopyRepository bookCopyRepository;
+    private final BookRepository bookRepository;
+    private final BorrowingRepository borrowingRepository;
+    private final BookCache bookCache;
+    private final CatalogSearchIndex catalogSearchIndex;
+
+    @Value("${app.inventory.per-copy.enabled:false}")
+    private boolean perCopyEnabled;
+
+    // Copies are never removed, so a title once lent per copy stays that way
+    private final Set<Long> perCopyTitles = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingStockRefresh = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registers copies as available. Refused while loans taken from the stock counter are still
+     * open: those books are out but have no copy row, so recalculating the stock from the new
+     * copies would count them as free. The book row is locked so no such loan starts meanwhile.
+     */
+    @Transactional
+    public List<BookCopy> addCopies(Long bookId, List<String> barcodes) {
+        log.info("Registering {} copies for book ID: {}", barcodes.size(), bookId);
+
+        Book book = bookRepository.findAllByIdInForUpdate(List.of(bookId)).stream().findFirst()
+                .orElseThrow(() -> new BookNotFoundException("Book not found with ID: " + bookId));
+        long openCounterLoans = borrowingRepository.countOpenCounterLoans(bookId);
+        if (openCounterLoans > 0) {
+            throw new CopyRegistrationConflictException("Book ID " + bookId + " has " + openCounterLoans
+                    + " open loans not tied to a copy; register copies after they are returned");
+        }
+
+        Set<String> unique = new HashSet<>(barcodes);
+        if (unique.size() != barcodes.size()) {
+            throw new DuplicateBarcodeException("Barcodes in the request must be unique");
+        }
+        List<String> existing = bookCopyRepository.findExistingBarcodes(unique);
+        if (!existing.isEmpty()) {
+            throw new DuplicateBarcodeException("Copies with barcodes " + existing + " already exist");
+        }
+
+        List<BookCopy> copies = new ArrayList<>();
+        for (String barcode : barcodes) {
+            BookCopy copy = new BookCopy();
+            copy.setBook(book);
+            copy.setBarcode(barcode);
+            copy.setStatus(BookCopy.CopyStatus.AVAILABLE);
+            copies.add(copy);
+        }
+        List<BookCopy> savedCopies = bookCopyRepository.saveAll(copies);
+
+        perCopyTitles.add(bookId);
+        requestStockRefresh(bookId);
+        return savedCopies;
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookCopy> getCopies(Long bookId) {
+        return bookCopyRepository.findByBook_IdOrderById(bookId);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isLentPerCopy(Long bookId) {
+        if (!perCopyEnabled) {
+            return false;
+        }
+        if (perCopyTitles.contains(bookId)) {
+            return true;
+        }
+        boolean hasCopies = bookCopyRepository.existsByBook_Id(bookId);
+        if (hasCopies) {
+            perCopyTitles.add(bookId);
+        }
+        return hasCopies;
+    }
+
+    /**
+     * Claims a free copy in the caller's transaction. Copies locked by other in-flight
+     * checkouts are skipped; empty means every copy is lent or being lent.
+     */
+    @Transactional
+    public Optional<BookCopy> claimCopy(Long bookId) {
+        Optional<BookCopy> copy = bookCopyRepository.claimAvailableCopy(bookId);
+        copy.ifPresent(claimed -> {
+            claimed.setStatus(BookCopy.CopyStatus.BORROWED);
+            requestStockRefresh(bookId);
+        });
+        return copy;
+    }
+
+    /**
+     * Makes the copy lent by a borrowing available again. Returns false when the borrowing
+     * was not lent from a copy.
+     */
+    @Transactional
+    public boolean releaseCopy(UUID borrowingId, Long bookId) {
+        if (bookCopyRepository.releaseCopyOf(borrowingId) == 0) {
+            return false;
+        }
+        requestStockRefresh(bookId);
+        return true;
+    }
+
+    /**
+     * Makes the copies lent by a batch of borrowings available again with one statement.
+     */
+    @Transactional
+    public int releaseCopies(Collection<UUID> borrowingIds, Collection<Long> bookIds) {
+        int released = bookCopyRepository.releaseCopiesOf(borrowingIds);
+        bookIds.forEach(this::requestStockRefresh);
+        return released;
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.stock-refresh-interval-ms:1000}")
+    @Transactional
+    public void refreshStock() {
+        if (pendingStockRefresh.isEmpty()) {
+            return;
+        }
+        List<Long> bookIds = new ArrayList<>();
+        for (Long bookId : pendingStockRefresh) {
+            if (pendingStockRefresh.remove(bookId)) {
+                bookIds.add(bookId);
+            }
+        }
+
+        int updated = bookRepository.recalculateStockFromCopies(bookIds);
+        bookIds.forEach(bookCache::evict);
+        // Replaces the ranked-search snapshot, including the +/-1 adjustments made by checkouts and returns
+        bookRepository.findByIdIn(bookIds).forEach(catalogSearchIndex::index);
+        log.debug("Recalculated stock from copies for {} books", updated);
+    }
+
+    private void requestStockRefresh(Long bookId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingStockRefresh.add(bookId);
+                }
+            });
+        } else {
+            pendingStockRefresh.add(bookId);
+        }
+    }
+}
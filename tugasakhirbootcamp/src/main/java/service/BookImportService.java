@@ -0,0 +1,276 @@
+package service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dto.BookDTO;
+import dto.response.BookImportResult;
+import exception.InvalidImportFileException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.BookRepository;
+import service.cache.BookCache;
+import service.search.CatalogSearchIndex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk catalog import. Rows are validated and processed in chunks: one set-based ISBN lookup
+ * and one JDBC batch insert per chunk, each chunk in its own transaction. A failing row is
+ * reported in the result instead of aborting the import.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookImportService {
+
+    private static final String INSERT_BOOK_SQL = "INSERT INTO m_books " +
+            "(title, author, isbn, price, description, stock, published_year, category, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final BookCache bookCache;
+
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    public BookImportResult importJson(InputStream inputStream) throws IOException {
+        log.info("Starting JSON book import");
+        BookImportResult result = new BookImportResult();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long row = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidImportFileException("Expected a JSON array of books");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                row++;
+                JsonNode node = objectMapper.readTree(parser);
+                if (!node.isObject()) {
+                    // null or a scalar would bind to a null book and fail validation for the whole chunk
+                    reject(result, row, null, "Invalid book: expected a JSON object");
+                } else {
+                    try {
+                        chunk.add(new ImportRow(row, objectMapper.treeToValue(node, BookDTO.class)));
+                    } catch (JsonProcessingException e) {
+                        reject(result, row, node.path("isbn").asText(null), "Invalid book: " + e.getOriginalMessage());
+                    }
+                }
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, result);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportFileException("Malformed JSON after row " + row + " ("
+                    + result.getImported() + " books already imported): " + e.getOriginalMessage());
+        }
+
+        flush(chunk, result);
+        result.setTotalRows(row);
+        result.getErrors().sort(Comparator.comparingLong(BookImportResult.RowError::getRow));
+        log.info("JSON book import finished: {} imported, {} failed", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    public BookImportResult importCsv(InputStream inputStream) throws IOException {
+        log.info("Starting CSV book import");
+        BookImportResult result = new BookImportResult();
+        CsvRecordReader reader = new CsvRecordReader(inputStream);
+        Map<String, Integer> columns = readHeader(reader.next());
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long row = 0;
+
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            row++;
+            try {
+                chunk.add(new ImportRow(row, toBook(record, columns)));
+            } catch (NumberFormatException e) {
+                reject(result, row, column(record, columns, "isbn"), "Invalid number: " + e.getMessage());
+            }
+            if (chunk.size() >= chunkSize) {
+                flush(chunk, result);
+            }
+        }
+
+        flush(chunk, result);
+        result.setTotalRows(row);
+        result.getErrors().sort(Comparator.comparingLong(BookImportResult.RowError::getRow));
+        log.info("CSV book import finished: {} imported, {} failed", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void flush(List<ImportRow> chunk, BookImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<ImportRow> candidates = new ArrayList<>();
+        Set<String> chunkIsbns = new HashSet<>();
+        for (ImportRow row : chunk) {
+            Set<ConstraintViolation<BookDTO>> violations = validator.validate(row.book());
+            if (!violations.isEmpty()) {
+                reject(result, row.number(), row.book().getIsbn(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            } else if (!chunkIsbns.add(row.book().getIsbn())) {
+                reject(result, row.number(), row.book().getIsbn(), "Duplicate ISBN in import file");
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        List<ImportRow> toInsert = new ArrayList<>();
+        Set<String> existingIsbns = chunkIsbns.isEmpty() ? Set.of() : bookRepository.findExistingIsbns(chunkIsbns);
+        for (ImportRow row : candidates) {
+            if (existingIsbns.contains(row.book().getIsbn())) {
+                reject(result, row.number(), row.book().getIsbn(),
+                        "Book with ISBN " + row.book().getIsbn() + " already exists");
+            } else {
+                toInsert.add(row);
+            }
+        }
+
+        List<ImportRow> inserted = insert(toInsert, result);
+        result.setImported(result.getImported() + inserted.size());
+
+        if (!inserted.isEmpty()) {
+            Set<String> insertedIsbns = inserted.stream().map(row -> row.book().getIsbn()).collect(Collectors.toSet());
+            bookRepository.findByIsbnIn(insertedIsbns).forEach(catalogSearchIndex::index);
+            bookCache.catalogChanged();
+        }
+        chunk.clear();
+    }
+
+    private List<ImportRow> insert(List<ImportRow> rows, BookImportResult result) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> batchInsert(rows));
+            return rows;
+        } catch (DataAccessException e) {
+            // Typically an ISBN inserted concurrently since the lookup; isolate the offending rows
+            log.warn("Batch insert of {} books failed, retrying row by row: {}", rows.size(), e.getMessage());
+        }
+
+        List<ImportRow> inserted = new ArrayList<>();
+        for (ImportRow row : rows) {
+            try {
+                transaction.executeWithoutResult(status -> batchInsert(List.of(row)));
+                inserted.add(row);
+            } catch (DataAccessException e) {
+                reject(result, row.number(), row.book().getIsbn(),
+                        "Could not insert book: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        return inserted;
+    }
+
+    private void batchInsert(List<ImportRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_BOOK_SQL, rows, rows.size(), (ps, row) -> {
+            BookDTO book = row.book();
+            ps.setString(1, book.getTitle());
+            ps.setString(2, book.getAuthor());
+            ps.setString(3, book.getIsbn());
+            ps.setBigDecimal(4, book.getPrice());
+            ps.setString(5, book.getDescription());
+            ps.setInt(6, book.getStock());
+            ps.setObject(7, book.getPublishedYear(), Types.INTEGER);
+            ps.setString(8, book.getCategory());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+        });
+    }
+
+    private Map<String, Integer> readHeader(List<String> header) {
+        if (header == null) {
+            throw new InvalidImportFileException("CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").replace("_", "").trim().toLowerCase(Locale.ROOT);
+            columns.put(name, i);
+        }
+        for (String required : List.of("title", "author", "isbn", "price", "stock")) {
+            if (!columns.containsKey(required)) {
+                throw new InvalidImportFileException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private BookDTO toBook(List<String> record, Map<String, Integer> columns) {
+        BookDTO book = new BookDTO();
+        book.setTitle(column(record, columns, "title"));
+        book.setAuthor(column(record, columns, "author"));
+        book.setIsbn(column(record, columns, "isbn"));
+        book.setDescription(column(record, columns, "description"));
+        book.setCategory(column(record, columns, "category"));
+
+        String price = column(record, columns, "price");
+        book.setPrice(price == null ? null : new BigDecimal(price));
+        String stock = column(record, columns, "stock");
+        book.setStock(stock == null ? null : Integer.valueOf(stock));
+        String publishedYear = column(record, columns, "publishedyear");
+        book.setPublishedYear(publishedYear == null ? null : Integer.valueOf(publishedYear));
+        return book;
+    }
+
+    private String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void reject(BookImportResult result, long row, String isbn, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new BookImportResult.RowError(row, isbn, message));
+        }
+    }
+
+    private record ImportRow(long number, BookDTO book) {
+    }
+}
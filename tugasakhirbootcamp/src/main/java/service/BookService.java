@@ -1,8 +1,13 @@
 package service;
 import dto.BookDTO;
+import dto.response.BookVersion;
+import dto.response.CatalogVersion;
+import dto.response.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
@@ -15,10 +20,20 @@ public interface BookService {
 
     Optional<BookDTO> getBookByIsbn(String isbn);
 
+    Optional<BookVersion> getBookVersionById(Long id);
+
+    Optional<BookVersion> getBookVersionByIsbn(String isbn);
+
+    CatalogVersion getCatalogVersion();
+
     List<BookDTO> getAllBooks();
 
+    void exportBooks(OutputStream outputStream) throws IOException;
+
     Page<BookDTO> getAllBooksPageable(Pageable pageable);
 
+    CursorPage<BookDTO> getBooksByCursor(String cursor, int size, String sortBy, String sortDir);
+
     BookDTO updateBook(Long id, BookDTO bookDTO);
 
     boolean deleteBook(Long id);
@@ -35,6 +50,11 @@ public interface BookService {
 
     Page<BookDTO> searchBooks(String title, String author, String category, Pageable pageable);
 
+    CursorPage<BookDTO> searchBooksByCursor(String title, String author, String category,
+                                            String cursor, int size, String sortBy, String sortDir);
+
+    Page<BookDTO> searchBooksRanked(String query, Pageable pageable);
+
     boolean updateStock(Long id, Integer newStock);
 
     boolean isBookExists(Long id);
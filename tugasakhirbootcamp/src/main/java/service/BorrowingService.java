@@ -1,86 +1,356 @@
 package service;
 
 import dto.BorrowingDto;
+import dto.request.BorrowingFilter;
+import dto.request.CheckoutRequest;
+import dto.request.ReturnBatchRequest;
+import dto.response.BorrowingResponse;
+import dto.response.CheckoutResult;
+import dto.response.CursorPage;
+import dto.response.ReturnBatchResult;
 import entity.Book;
+import entity.BookCopy;
 import entity.Borrowing;
 import entity.Member;
+import exception.InvalidCursorException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import repository.BookRepository;
 //import repository.BorrowingRepository; // Import BorrowingRepository
 import repository.BorrowingRepository;
 import repository.MemberRepository;
+import service.cache.BookCache;
+import service.cursor.CursorCodec;
+import service.search.CatalogSearchIndex;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID; // Import UUID
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class BorrowingService {
+    private static final String CURSOR_SORT = "_sort";
+    private static final String CURSOR_DIRECTION = "_dir";
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Non-null attributes usable as keyset sort keys
+    private static final Map<String, SortKey> CURSOR_SORT_KEYS = Map.of(
+            "borrowDate", new SortKey(LocalDate::parse, BorrowingResponse::getBorrowDate),
+            "dueDate", new SortKey(LocalDate::parse, BorrowingResponse::getDueDate)
+    );
+
     private final BorrowingRepository borrowingRepository; // Perbaikan: Gunakan BorrowingRepository
     private final BookRepository bookRepository;
     private final MemberRepository memberRepository;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final BookCache bookCache;
+    private final BookCopyService bookCopyService;
+    private final ActiveLoanWindow activeLoanWindow;
+
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowingResponse> searchBorrowings(BorrowingFilter filter, String cursor, int size,
+                                                          String sortBy, String sortDir) {
+        if (!CURSOR_SORT_KEYS.containsKey(sortBy)) {
+            throw new InvalidCursorException("Cursor pagination cannot sort by: " + sortBy);
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        KeysetScrollPosition position = cursor == null || cursor.isBlank()
+                ? ScrollPosition.keyset()
+                : decodeCursor(cursor, sortBy, direction);
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
 
-    public List<Borrowing> getAllBorrowings() {
-        return borrowingRepository.findAll();
+        // One extra row tells whether another page exists without a COUNT
+        List<BorrowingResponse> rows = borrowingRepository.findPage(filter, new Sort.Order(direction, sortBy),
+                position, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<BorrowingResponse> content = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            BorrowingResponse last = content.get(content.size() - 1);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sortBy, CURSOR_SORT_KEYS.get(sortBy).extractor().apply(last));
+            keys.put("id", last.getId());
+            keys.put(CURSOR_SORT, sortBy);
+            keys.put(CURSOR_DIRECTION, direction.name());
+            nextCursor = CursorCodec.encode(keys);
+        }
+        return new CursorPage<>(List.copyOf(content), content.size(), hasNext, nextCursor);
     }
 
-    public Optional<Borrowing> getBorrowingById(UUID id) { // Perbaikan: Menggunakan UUID
-        return borrowingRepository.findById(id);
+    public Optional<BorrowingResponse> getBorrowingById(UUID id) { // Perbaikan: Menggunakan UUID
+        return borrowingRepository.findResponseById(id);
     }
 
     @Transactional
-    public Borrowing createBorrowing(BorrowingDto borrowingDto) {
-        Book book = bookRepository.findById(borrowingDto.getBookId())
+    public BorrowingResponse createBorrowing(BorrowingDto borrowingDto) {
+        Long bookId = borrowingDto.getBookId();
+        Member member = memberRepository.findById(borrowingDto.getMemberId())
+                .orElseThrow(() -> new RuntimeException("Member not found"));
+
+        BookCopy copy = null;
+        if (bookCopyService.isLentPerCopy(bookId)) {
+            // Stock is recalculated from the copies after commit; the book row is not locked
+            copy = bookCopyService.claimCopy(bookId)
+                    .orElseThrow(() -> new RuntimeException("Book is not available for borrowing"));
+        } else if (bookRepository.decrementStock(bookId) == 0) {
+            // Check and decrement in one statement instead of read-modify-write through the entity
+            throw new RuntimeException(bookRepository.existsById(bookId)
+                    ? "Book is not available for borrowing"
+                    : "Book not found");
+        } else {
+            bookCache.evict(bookId);
+        }
+        catalogSearchIndex.adjustStock(bookId, -1);
+
+        Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
 
-        Member member = memberRepository.findById(borrowingDto.getMemberId())
+        return toResponse(borrowingRepository.save(newBorrowing(book, copy, member)));
+    }
+
+    /**
+     * Checks out a whole cart for one member in a single transaction. Shared-stock titles are
+     * locked with one query in id order, so carts sharing titles cannot deadlock, and all
+     * borrowings are inserted in one batch at flush. A title that cannot be lent is reported
+     * in its item instead of failing the cart.
+     */
+    @Transactional
+    public CheckoutResult checkout(CheckoutRequest request) {
+        Member member = memberRepository.findById(request.getMemberId())
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
-        if (book.getStock() <= 0) { // Menggunakan 'stock' dari entity Book
-            throw new RuntimeException("Book is not available for borrowing");
+        Set<Long> bookIds = new TreeSet<>(request.getBookIds());
+        List<Long> sharedStockIds = bookIds.stream()
+                .filter(bookId -> !bookCopyService.isLentPerCopy(bookId))
+                .toList();
+
+        Map<Long, Book> lockedBooks = new HashMap<>();
+        if (!sharedStockIds.isEmpty()) {
+            bookRepository.findAllByIdInForUpdate(sharedStockIds).forEach(book -> lockedBooks.put(book.getId(), book));
+        }
+        Map<Long, BookCopy> claimedCopies = new HashMap<>();
+        for (Long bookId : bookIds) {
+            if (!sharedStockIds.contains(bookId)) {
+                bookCopyService.claimCopy(bookId).ifPresent(copy -> claimedCopies.put(bookId, copy));
+            }
         }
 
-        Borrowing borrowing = new Borrowing();
-        borrowing.setBook(book);
-        borrowing.setMember(member);
-        borrowing.setBorrowDate(LocalDate.now());
-        borrowing.setDueDate(LocalDate.now().plusDays(14)); // 2 weeks
-        borrowing.setStatus(Borrowing.BorrowingStatus.BORROWED);
+        CheckoutResult result = new CheckoutResult();
+        result.setMemberId(member.getId());
+        Set<Long> seen = new HashSet<>();
+        List<CheckoutResult.ItemResult> borrowedItems = new ArrayList<>();
+        List<Borrowing> borrowings = new ArrayList<>();
 
-        book.setStock(book.getStock() - 1); // Mengurangi stock buku
-        bookRepository.save(book);
+        for (Long bookId : request.getBookIds()) {
+            CheckoutResult.ItemResult item = new CheckoutResult.ItemResult(bookId, null, null, null);
+            result.getItems().add(item);
+            if (!seen.add(bookId)) {
+                item.setStatus(CheckoutResult.ItemStatus.DUPLICATE);
+                item.setMessage("Book is already in this checkout");
+                continue;
+            }
 
-        return borrowingRepository.save(borrowing);
+            BookCopy copy = claimedCopies.get(bookId);
+            Book book = copy != null ? copy.getBook() : lockedBooks.get(bookId);
+            if (book == null && sharedStockIds.contains(bookId)) {
+                item.setStatus(CheckoutResult.ItemStatus.NOT_FOUND);
+                item.setMessage("Book not found");
+                continue;
+            }
+            if (book == null || (copy == null && (book.getStock() == null || book.getStock() <= 0))) {
+                item.setStatus(CheckoutResult.ItemStatus.UNAVAILABLE);
+                item.setMessage("Book is not available for borrowing");
+                continue;
+            }
+
+            if (copy == null) {
+                // The row is locked, so the dirty-checked decrement cannot oversell
+                book.setStock(book.getStock() - 1);
+                bookCache.evict(bookId);
+            }
+            catalogSearchIndex.adjustStock(bookId, -1);
+            item.setStatus(CheckoutResult.ItemStatus.BORROWED);
+            borrowedItems.add(item);
+            borrowings.add(newBorrowing(book, copy, member));
+        }
+
+        borrowingRepository.saveAll(borrowings);
+        for (int i = 0; i < borrowings.size(); i++) {
+            borrowedItems.get(i).setBorrowing(toResponse(borrowings.get(i)));
+        }
+        result.setBorrowed(borrowings.size());
+        result.setFailed(result.getItems().size() - borrowings.size());
+        return result;
     }
 
     @Transactional
-    public Borrowing returnBook(UUID borrowingId) { // Perbaikan: Menggunakan UUID
-        Borrowing borrowing = borrowingRepository.findById(borrowingId)
+    public BorrowingResponse returnBook(UUID borrowingId) { // Perbaikan: Menggunakan UUID
+        Long bookId = borrowingRepository.findBookIdById(borrowingId)
                 .orElseThrow(() -> new RuntimeException("Borrowing not found"));
 
-        if (borrowing.getStatus() != Borrowing.BorrowingStatus.BORROWED) {
+        if (borrowingRepository.markReturned(borrowingId, LocalDate.now()) == 0) {
             throw new RuntimeException("Book is already returned or not borrowed");
         }
 
-        borrowing.setReturnDate(LocalDate.now());
-        borrowing.setStatus(Borrowing.BorrowingStatus.RETURNED);
+        if (!bookCopyService.releaseCopy(borrowingId, bookId)) {
+            bookRepository.incrementStock(bookId);
+            bookCache.evict(bookId);
+        }
+        catalogSearchIndex.adjustStock(bookId, 1);
+
+        return borrowingRepository.findResponseById(borrowingId)
+                .orElseThrow(() -> new RuntimeException("Borrowing not found"));
+    }
+
+    /**
+     * Returns a batch of borrowings, given by id or by copy barcode, in one transaction. The
+     * status changes, copy releases and stock increments are each a single set-based statement,
+     * so the number of round trips does not grow with the batch size.
+     */
+    @Transactional
+    public ReturnBatchResult returnBatch(ReturnBatchRequest request) {
+        if (request.getBorrowingIds().isEmpty() && request.getBarcodes().isEmpty()) {
+            throw new RuntimeException("At least one borrowing ID or barcode is required");
+        }
+
+        Map<String, UUID> loansByBarcode = new HashMap<>();
+        if (!request.getBarcodes().isEmpty()) {
+            borrowingRepository.findActiveLoansByBarcodes(new HashSet<>(request.getBarcodes()))
+                    .forEach(loan -> loansByBarcode.put(loan.getBarcode(), loan.getBorrowingId()));
+        }
+
+        ReturnBatchResult result = new ReturnBatchResult();
+        for (UUID borrowingId : request.getBorrowingIds()) {
+            result.getItems().add(new ReturnBatchResult.ItemResult(borrowingId.toString(), borrowingId, null));
+        }
+        for (String barcode : request.getBarcodes()) {
+            result.getItems().add(new ReturnBatchResult.ItemResult(barcode, loansByBarcode.get(barcode), null));
+        }
+
+        Set<UUID> targetIds = new HashSet<>();
+        for (ReturnBatchResult.ItemResult item : result.getItems()) {
+            if (item.getBorrowingId() == null) {
+                item.setStatus(ReturnBatchResult.ItemStatus.NOT_FOUND);
+            } else if (!targetIds.add(item.getBorrowingId())) {
+                item.setStatus(ReturnBatchResult.ItemStatus.DUPLICATE);
+            }
+        }
+
+        List<Borrowing> returnable = targetIds.isEmpty()
+                ? List.of()
+                : borrowingRepository.findReturnableForUpdate(targetIds);
+        Set<UUID> returnedIds = new HashSet<>();
+        Set<Long> sharedStockBookIds = new TreeSet<>();
+        Set<Long> perCopyBookIds = new HashSet<>();
+        Map<Long, Integer> returnsPerBook = new HashMap<>();
+        for (Borrowing borrowing : returnable) {
+            Long bookId = borrowing.getBook().getId();
+            returnedIds.add(borrowing.getId());
+            (borrowing.getCopy() == null ? sharedStockBookIds : perCopyBookIds).add(bookId);
+            returnsPerBook.merge(bookId, 1, Integer::sum);
+        }
+
+        Set<UUID> missingIds = new HashSet<>(targetIds);
+        missingIds.removeAll(returnedIds);
+        Set<UUID> inactiveIds = missingIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(borrowingRepository.findExistingIds(missingIds));
+        for (ReturnBatchResult.ItemResult item : result.getItems()) {
+            if (item.getStatus() == null) {
+                item.setStatus(returnedIds.contains(item.getBorrowingId()) ? ReturnBatchResult.ItemStatus.RETURNED
+                        : inactiveIds.contains(item.getBorrowingId()) ? ReturnBatchResult.ItemStatus.ALREADY_RETURNED
+                        : ReturnBatchResult.ItemStatus.NOT_FOUND);
+            }
+        }
+
+        if (!returnedIds.isEmpty()) {
+            borrowingRepository.markAllReturned(returnedIds, LocalDate.now());
+            if (!sharedStockBookIds.isEmpty()) {
+                // Same lock order as checkout, so a batch of returns and a cart cannot deadlock
+                bookRepository.findAllByIdInForUpdate(sharedStockBookIds);
+                bookRepository.incrementStockForReturns(sharedStockBookIds, returnedIds);
+                sharedStockBookIds.forEach(bookCache::evict);
+            }
+            if (!perCopyBookIds.isEmpty()) {
+                bookCopyService.releaseCopies(returnedIds, perCopyBookIds);
+            }
+            returnsPerBook.forEach(catalogSearchIndex::adjustStock);
+        }
+
+        result.setReturned(returnedIds.size());
+        result.setFailed(result.getItems().size() - returnedIds.size());
+        return result;
+    }
 
-        Book book = borrowing.getBook();
-        book.setStock(book.getStock() + 1); // Menambah stock buku
-        bookRepository.save(book);
+    // Status is kept current by OverdueSweeper, so this is an indexed lookup rather than a date scan;
+    // the borrowDate bound comes from ActiveLoanWindow and only serves partition pruning
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowingResponse> getOverdueBorrowings(String cursor, int size, String sortBy, String sortDir) {
+        BorrowingFilter filter = new BorrowingFilter(null, null, Borrowing.BorrowingStatus.OVERDUE,
+                activeLoanWindow.since(), null);
+        return searchBorrowings(filter, cursor, size, sortBy, sortDir);
+    }
 
-        return borrowingRepository.save(borrowing);
+    private KeysetScrollPosition decodeCursor(String cursor, String sortBy, Sort.Direction direction) {
+        Map<String, String> values = CursorCodec.decode(cursor);
+        if (!sortBy.equals(values.get(CURSOR_SORT)) || !direction.name().equals(values.get(CURSOR_DIRECTION))
+                || values.get(sortBy) == null || values.get("id") == null) {
+            throw new InvalidCursorException("Cursor does not match the requested sort order");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            keys.put(sortBy, CURSOR_SORT_KEYS.get(sortBy).parser().apply(values.get(sortBy)));
+            keys.put("id", UUID.fromString(values.get("id")));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private Borrowing newBorrowing(Book book, BookCopy copy, Member member) {
+        Borrowing borrowing = new Borrowing();
+        borrowing.setBook(book);
+        borrowing.setCopy(copy);
+        borrowing.setMember(member);
+        borrowing.setBorrowDate(LocalDate.now());
+        borrowing.setDueDate(LocalDate.now().plusDays(14)); // 2 weeks
+        borrowing.setStatus(Borrowing.BorrowingStatus.BORROWED);
+        return borrowing;
     }
 
-    public List<Borrowing> getBorrowingsByMember(Long memberId) {
-        return borrowingRepository.findByMember_Id(memberId);
+    // Built from the entities already loaded by createBorrowing and checkout, without further queries
+    private BorrowingResponse toResponse(Borrowing borrowing) {
+        return new BorrowingResponse(
+                borrowing.getId(),
+                borrowing.getBook().getId(),
+                borrowing.getBook().getTitle(),
+                borrowing.getBook().getIsbn(),
+                borrowing.getMember().getId(),
+                borrowing.getMember().getName(),
+                borrowing.getCopy() == null ? null : borrowing.getCopy().getBarcode(),
+                borrowing.getBorrowDate(),
+                borrowing.getDueDate(),
+                borrowing.getReturnDate(),
+                borrowing.getStatus(),
+                borrowing.getCreatedAt(),
+                borrowing.getUpdatedAt());
     }
 
-    public List<Borrowing> getOverdueBorrowings() {
-        return borrowingRepository.findOverdueBorrowings(LocalDate.now());
+    private record SortKey(Function<String, Object> parser, Function<BorrowingResponse, Object> extractor) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package service;
+
+import exception.ExportUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs NDJSON catalog exports on a small dedicated pool. An export keeps a pooled connection
+ * and a read-only transaction open while the client downloads, so only a few may run at once;
+ * further requests get an {@link ExportUnavailableException} (503) instead of draining the
+ * connection pool. Each export has its own timeout: when it fires, the next write fails, which
+ * ends the transaction and frees the connection. Other async endpoints keep the default timeout.
+ */
+@Component
+@Slf4j
+public class CatalogExporter {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final BookService bookService;
+    private final Semaphore permits;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Counter rejected;
+
+    public CatalogExporter(BookService bookService,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.export.max-concurrent:2}") int maxConcurrent,
+                           @Value("${app.export.timeout:10m}") Duration timeout) {
+        this.bookService = bookService;
+        this.permits = new Semaphore(maxConcurrent);
+        AtomicInteger threadNumber = new AtomicInteger();
+        // The semaphore admits at most maxConcurrent tasks, so the queue stays empty
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "catalog-export-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.timeout = timeout;
+        this.rejected = Counter.builder("books.export.rejected")
+                .description("Catalog exports refused because the concurrency limit was reached")
+                .register(meterRegistry);
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "catalog-export", List.of());
+    }
+
+    /**
+     * Starts an export and returns the emitter its lines are written to.
+     */
+    public ResponseBodyEmitter start() {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new ExportUnavailableException("Too many catalog exports in progress, please retry later");
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeout.toMillis());
+        emitter.onTimeout(() -> log.warn("Catalog export timed out after {}", timeout));
+        try {
+            executor.execute(() -> run(emitter));
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw new ExportUnavailableException("Catalog export is shutting down");
+        }
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ResponseBodyEmitter emitter) {
+        try (OutputStream outputStream = new BufferedOutputStream(new EmitterOutputStream(emitter), CHUNK_SIZE)) {
+            bookService.exportBooks(outputStream);
+        } catch (IOException | RuntimeException e) {
+            // Timed out, client gone or query failed; the missing trailer line tells the client
+            log.warn("Catalog export aborted: {}", e.getMessage());
+            emitter.completeWithError(e);
+            return;
+        } finally {
+            permits.release();
+        }
+        emitter.complete();
+    }
+
+    private static final class EmitterOutputStream extends OutputStream {
+
+        private final ResponseBodyEmitter emitter;
+
+        private EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            emitter.send(Arrays.copyOfRange(bytes, offset, offset + length), MediaType.APPLICATION_NDJSON);
+        }
+    }
+}
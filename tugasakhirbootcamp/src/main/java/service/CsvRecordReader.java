@@ -0,0 +1,75 @@
+package service;
+
+import exception.InvalidImportFileException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, double-quoted fields with "" escapes
+ * and line breaks inside quotes. Reads one record at a time so large files never sit in memory.
+ */
+public final class CsvRecordReader {
+
+    private final BufferedReader reader;
+
+    public CsvRecordReader(InputStream inputStream) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the next record, or {@code null} at the end of the stream.
+     */
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean consumed = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            consumed = true;
+            char ch = (char) c;
+            if (quoted) {
+                if (ch != '"') {
+                    field.append(ch);
+                    continue;
+                }
+                reader.mark(1);
+                int following = reader.read();
+                if (following == '"') {
+                    field.append('"');
+                } else {
+                    quoted = false;
+                    if (following != -1) {
+                        reader.reset();
+                    }
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+
+        if (quoted) {
+            throw new InvalidImportFileException("CSV ends inside a quoted field");
+        }
+        if (!consumed) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,131 @@
+package service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.BorrowingRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves borrowings past their due date from BORROWED to OVERDUE. Each sweep walks the overdue
+ * rows in id order, one bounded chunk per transaction, so no sweep holds locks on more than a
+ * chunk of rows or keeps a long transaction open. The update re-checks the status, so returns
+ * racing with a sweep and sweeps on several instances are safe.
+ */
+@Component
+@Slf4j
+public class OverdueSweeper {
+
+    private static final UUID FIRST_KEY = new UUID(0, 0);
+
+    private final BorrowingRepository borrowingRepository;
+    private final ActiveLoanWindow activeLoanWindow;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong markedInCurrentSweep = new AtomicLong();
+    private final AtomicLong lastSweepEpochSecond = new AtomicLong();
+    private final Counter markedOverdue;
+    private final Counter chunksProcessed;
+    private final Timer sweepTimer;
+
+    public OverdueSweeper(BorrowingRepository borrowingRepository,
+                          ActiveLoanWindow activeLoanWindow,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.overdue.chunk-size:500}") int chunkSize) {
+        this.borrowingRepository = borrowingRepository;
+        this.activeLoanWindow = activeLoanWindow;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+
+        this.markedOverdue = Counter.builder("borrowings.overdue.marked")
+                .description("Borrowings moved to OVERDUE by the sweeper")
+                .register(meterRegistry);
+        this.chunksProcessed = Counter.builder("borrowings.overdue.sweep.chunks")
+                .description("Chunks processed by the overdue sweeper")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("borrowings.overdue.sweep")
+                .description("Duration of overdue sweeps")
+                .register(meterRegistry);
+        Gauge.builder("borrowings.overdue.sweep.in-progress", markedInCurrentSweep, AtomicLong::get)
+                .description("Borrowings marked so far by the running sweep")
+                .register(meterRegistry);
+        Gauge.builder("borrowings.overdue.sweep.last-completed", lastSweepEpochSecond, AtomicLong::get)
+                .description("Epoch second at which the last sweep completed")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void sweepOnStartup() {
+        sweep();
+    }
+
+    @Scheduled(cron = "${app.overdue.sweep-cron:0 */5 * * * *}")
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    /**
+     * Runs one sweep and returns the number of borrowings marked OVERDUE. Returns 0 without
+     * doing anything if a sweep is already running in this instance.
+     */
+    public long sweep() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Overdue sweep already running, skipping");
+            return 0;
+        }
+        markedInCurrentSweep.set(0);
+        try {
+            return sweepTimer.record(this::sweepChunks);
+        } finally {
+            lastSweepEpochSecond.set(System.currentTimeMillis() / 1000);
+            running.set(false);
+        }
+    }
+
+    private long sweepChunks() {
+        LocalDate today = LocalDate.now();
+        LocalDate since = activeLoanWindow.refresh();
+        UUID after = FIRST_KEY;
+        long marked = 0;
+
+        while (true) {
+            List<UUID> ids = borrowingRepository.findOverdueIdsAfter(today, since, after, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            int updated = transactionTemplate.execute(status -> borrowingRepository.markOverdue(ids));
+            marked += updated;
+            markedInCurrentSweep.set(marked);
+            markedOverdue.increment(updated);
+            chunksProcessed.increment();
+
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+        }
+
+        if (marked > 0) {
+            log.info("Overdue sweep marked {} borrowings as OVERDUE", marked);
+        }
+        return marked;
+    }
+}
@@ -0,0 +1,129 @@
+package service;
+
+import entity.RefreshToken;
+import entity.User;
+import exception.InvalidRefreshTokenException;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import repository.RefreshTokenRepository;
+import secruity.jwt.JwtUtils;
+import secruity.jwt.TokenRevocationList;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates the opaque refresh tokens that let clients renew short-lived access tokens
+ * without logging in again, and ends sessions by revoking both kinds of token.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationList tokenRevocationList;
+    private final JwtUtils jwtUtils;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${jwt.refresh-expirationMs:1209600000}")
+    private long refreshExpirationMs;
+
+    /**
+     * Starts a new session for a user who has just logged in.
+     */
+    @Transactional
+    public IssuedRefreshToken issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Exchanges a refresh token for the next one in its session. Presenting a token that was
+     * already exchanged revokes the session, since either the client or an attacker holds a
+     * copy; that revocation is committed even though the call fails.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public IssuedRefreshToken rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is not valid"));
+
+        if (current.getUsedAt() != null && !current.isRevoked()) {
+            log.warn("Refresh token reuse detected for user {}, revoking session {}",
+                    current.getUser().getUsername(), current.getFamilyId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+        User user = current.getUser();
+        if (current.isRevoked() || current.getExpiresAt().isBefore(Instant.now()) || !user.isEnabled()) {
+            throw new InvalidRefreshTokenException("Refresh token is not valid");
+        }
+
+        current.setUsedAt(Instant.now());
+        return issue(user, current.getFamilyId());
+    }
+
+    /**
+     * Ends the session of the given access token: the access token itself and its refresh tokens.
+     */
+    @Transactional
+    public void endSession(Claims accessTokenClaims) {
+        tokenRevocationList.revoke(accessTokenClaims);
+        jwtUtils.getSessionId(accessTokenClaims).ifPresent(refreshTokenRepository::revokeFamily);
+    }
+
+    /**
+     * Ends every session of a user, e.g. after a password, role or status change.
+     */
+    @Transactional
+    public void endAllSessions(String username) {
+        tokenRevocationList.revokeAllFor(username);
+        refreshTokenRepository.revokeAllOfUser(username);
+    }
+
+    @Scheduled(fixedDelay = 3_600_000)
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private IssuedRefreshToken issue(User user, UUID familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .user(user)
+                .familyId(familyId)
+                .expiresAt(Instant.now().plusMillis(refreshExpirationMs))
+                .build());
+        return new IssuedRefreshToken(rawToken, familyId, user);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record IssuedRefreshToken(String token, UUID sessionId, User user) {
+    }
+}
@@ -2,6 +2,7 @@ package service;
 
 //import com.sinaukoding.tugasakhir.tugasakhirbootcamp.entity.User;
 //import com.sinaukoding.tugasakhir.tugasakhirbootcamp.repository.UserRepository;
+import entity.Role;
 import entity.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -9,17 +10,26 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import repository.RoleRepository;
 import repository.UserRepository;
+import service.cache.UserDetailsCache;
+
+import java.util.HashSet;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final RefreshTokenService refreshTokenService;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        return userDetailsCache.get(username, userRepository::findByUsername)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
@@ -27,4 +37,42 @@ public class UserService implements UserDetailsService {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         return userRepository.save(user);
     }
+
+    @Transactional
+    public User setEnabled(String username, boolean enabled) {
+        User user = findUser(username);
+        user.setEnabled(enabled);
+        return securityChanged(userRepository.save(user));
+    }
+
+    @Transactional
+    public User changePassword(String username, String newPassword) {
+        User user = findUser(username);
+        user.setPassword(passwordEncoder.encode(newPassword));
+        return securityChanged(userRepository.save(user));
+    }
+
+    @Transactional
+    public User updateRoles(String username, Set<String> roleNames) {
+        User user = findUser(username);
+        Set<Role> roles = new HashSet<>();
+        for (String roleName : roleNames) {
+            roles.add(roleRepository.findByName(roleName)
+                    .orElseThrow(() -> new RuntimeException("Error: Role " + roleName + " is not found.")));
+        }
+        user.setRoles(roles);
+        return securityChanged(userRepository.save(user));
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    }
+
+    // Cached principals and issued tokens would otherwise keep the old roles or access alive
+    private User securityChanged(User user) {
+        userDetailsCache.invalidate(user.getUsername());
+        refreshTokenService.endAllSessions(user.getUsername());
+        return user;
+    }
 }
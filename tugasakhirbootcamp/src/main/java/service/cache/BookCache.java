@@ -0,0 +1,154 @@
+package service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dto.BookDTO;
+import dto.response.CatalogVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache for single-book lookups. Books are cached by id; the ISBN cache
+ * only maps an ISBN to an id and is verified against the cached book, so evicting the id is
+ * enough to invalidate both lookups. Missing books are not cached. Books are loaded through
+ * Caffeine, so concurrent misses for the same id share one database load, and an eviction
+ * issued while that load runs waits for it and then removes what it loaded.
+ * <p>
+ * Also holds the catalog version behind the collection ETags, so list requests do not each
+ * run a count over the whole table. It is dropped by every book write on this instance and
+ * reloaded at most every few seconds to pick up writes made by other instances.
+ */
+@Component
+public class BookCache {
+
+    private static final Duration CATALOG_VERSION_TTL = Duration.ofSeconds(5);
+
+    private final Cache<Long, BookDTO> booksById;
+    private final Cache<String, Long> idsByIsbn;
+    private final Cache<Boolean, CatalogVersion> catalogVersion = Caffeine.newBuilder()
+            .expireAfterWrite(CATALOG_VERSION_TTL)
+            .build();
+
+    public BookCache(MeterRegistry meterRegistry,
+                     @Value("${app.cache.books.maximum-size:10000}") long maximumSize,
+                     @Value("${app.cache.books.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.booksById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.idsByIsbn = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, booksById, "books.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByIsbn, "books.by-isbn");
+    }
+
+    public Optional<BookDTO> getById(Long id, Function<Long, Optional<BookDTO>> loader) {
+        BookDTO book = booksById.get(id, key -> loader.apply(key)
+                .map(loaded -> {
+                    idsByIsbn.put(loaded.getIsbn(), key);
+                    return copyOf(loaded);
+                })
+                .orElse(null));
+        return Optional.ofNullable(book).map(this::copyOf);
+    }
+
+    /**
+     * Resolves the ISBN to an id, then reads the book through {@link #getById}. A mapping left
+     * over from an ISBN that has since moved to another book is dropped and resolved again.
+     */
+    public Optional<BookDTO> getByIsbn(String isbn, Function<String, Optional<Long>> idLoader,
+                                       Function<Long, Optional<BookDTO>> loader) {
+        Long id = idsByIsbn.get(isbn, key -> idLoader.apply(key).orElse(null));
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<BookDTO> book = getById(id, loader);
+        if (book.isPresent() && isbn.equals(book.get().getIsbn())) {
+            return book;
+        }
+        idsByIsbn.invalidate(isbn);
+        return idLoader.apply(isbn)
+                .flatMap(current -> getById(current, loader))
+                .filter(current -> isbn.equals(current.getIsbn()));
+    }
+
+    /**
+     * Returns the cached book without loading it or counting a cache hit or miss.
+     */
+    public Optional<BookDTO> peekById(Long id) {
+        return Optional.ofNullable(booksById.asMap().get(id)).map(this::copyOf);
+    }
+
+    public Optional<BookDTO> peekByIsbn(String isbn) {
+        return Optional.ofNullable(idsByIsbn.asMap().get(isbn))
+                .map(id -> booksById.asMap().get(id))
+                .filter(book -> isbn.equals(book.getIsbn()))
+                .map(this::copyOf);
+    }
+
+    public CatalogVersion getCatalogVersion(Supplier<CatalogVersion> loader) {
+        return catalogVersion.get(Boolean.TRUE, key -> loader.get());
+    }
+
+    /**
+     * Evicts a book now and again once the current transaction commits, so a concurrent
+     * read that loaded the old row before the commit cannot leave it cached.
+     */
+    public void evict(Long bookId) {
+        booksById.invalidate(bookId);
+        catalogVersion.invalidateAll();
+        afterCompletion(() -> {
+            booksById.invalidate(bookId);
+            catalogVersion.invalidateAll();
+        });
+    }
+
+    /**
+     * Drops the catalog version after books were added, which leaves cached books valid.
+     */
+    public void catalogChanged() {
+        catalogVersion.invalidateAll();
+        afterCompletion(catalogVersion::invalidateAll);
+    }
+
+    public void clear() {
+        booksById.invalidateAll();
+        idsByIsbn.invalidateAll();
+        catalogVersion.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return booksById.stats();
+    }
+
+    private void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private BookDTO copyOf(BookDTO book) {
+        return new BookDTO(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getPrice(),
+                book.getDescription(), book.getStock(), book.getPublishedYear(), book.getCategory(),
+                book.getUpdatedAt());
+    }
+}
@@ -0,0 +1,63 @@
+package service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-limited cache of users with their roles, keyed by username, in front of the
+ * lookup made by the authentication filter. Entries are evicted whenever a user is disabled or
+ * their roles or password change; the TTL bounds staleness from any other write path. Unknown
+ * usernames are not cached. Concurrent misses for the same username share one load.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, User> usersByUsername;
+
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${app.cache.users.maximum-size:10000}") long maximumSize,
+                            @Value("${app.cache.users.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.usersByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUsername, "users.by-username");
+    }
+
+    public Optional<User> get(String username, Function<String, Optional<User>> loader) {
+        return Optional.ofNullable(usersByUsername.get(username, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Evicts a user now and again once the current transaction completes, so a concurrent
+     * request that loaded the old row before the commit cannot leave it cached.
+     */
+    public void invalidate(String username) {
+        usersByUsername.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    usersByUsername.invalidate(username);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return usersByUsername.stats();
+    }
+}
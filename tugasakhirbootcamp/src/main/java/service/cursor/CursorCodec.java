@@ -0,0 +1,45 @@
+package service.cursor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exception.InvalidCursorException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe continuation tokens.
+ * Values are kept as strings; callers convert them back to the sort attribute's type.
+ */
+public final class CursorCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> TOKEN_TYPE = new TypeReference<>() {
+    };
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Map<String, ?> keys) {
+        Map<String, String> values = new LinkedHashMap<>();
+        keys.forEach((key, value) -> values.put(key, value == null ? null : value.toString()));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(values));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode cursor", e);
+        }
+    }
+
+    public static Map<String, String> decode(String token) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token.getBytes(StandardCharsets.US_ASCII));
+            return MAPPER.readValue(json, TOKEN_TYPE);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -1,22 +1,46 @@
 package service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.TrigramSearchSupport;
 import dto.BookDTO;
+import dto.response.BookVersion;
+import dto.response.CatalogVersion;
+import dto.response.CursorPage;
 import entity.Book;
 import exception.BookNotFoundException;
 import exception.DuplicateIsbnException;
+import exception.InvalidCursorException;
+import exception.StockManagedByCopiesException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import repository.BookRepository;
+import repository.BookSpecifications;
+import service.BookCopyService;
 import service.BookService;
+import service.cache.BookCache;
+import service.cursor.CursorCodec;
+import service.search.CatalogSearchIndex;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,7 +48,28 @@ import java.util.stream.Collectors;
 @Transactional
 public class BookServiceImpl implements BookService {
 
+    private static final String CURSOR_SORT = "_sort";
+    private static final String CURSOR_DIRECTION = "_dir";
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Non-null attributes usable as keyset sort keys, with the parser for their cursor values
+    private static final Map<String, Function<String, Object>> CURSOR_SORT_KEYS = Map.of(
+            "id", Long::valueOf,
+            "title", value -> value,
+            "author", value -> value,
+            "isbn", value -> value,
+            "price", BigDecimal::new,
+            "stock", Integer::valueOf,
+            "createdAt", LocalDateTime::parse,
+            "updatedAt", LocalDateTime::parse
+    );
+
     private final BookRepository bookRepository;
+    private final TrigramSearchSupport trigramSearchSupport;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final BookCache bookCache;
+    private final ObjectMapper objectMapper;
+    private final BookCopyService bookCopyService;
 
     @Override
     public BookDTO createBook(BookDTO bookDTO) {
@@ -37,42 +82,95 @@ public class BookServiceImpl implements BookService {
 
         Book book = convertToEntity(bookDTO);
         Book savedBook = bookRepository.save(book);
+        BookDTO savedBookDTO = convertToDTO(savedBook);
+        catalogSearchIndex.index(savedBookDTO);
+        bookCache.catalogChanged();
 
         log.info("Successfully created book with ID: {}", savedBook.getId());
-        return convertToDTO(savedBook);
+        return savedBookDTO;
     }
 
+    // SUPPORTS: a cache hit must not open a transaction, which would check out a connection
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<BookDTO> getBookById(Long id) {
         log.debug("Fetching book with ID: {}", id);
-        return bookRepository.findById(id)
-                .map(this::convertToDTO);
+        return bookCache.getById(id, key -> bookRepository.findById(key)
+                .map(this::convertToDTO));
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<BookDTO> getBookByIsbn(String isbn) {
         log.debug("Fetching book with ISBN: {}", isbn);
-        return bookRepository.findByIsbn(isbn)
-                .map(this::convertToDTO);
+        return bookCache.getByIsbn(isbn, bookRepository::findIdByIsbn, key -> bookRepository.findById(key)
+                .map(this::convertToDTO));
+    }
+
+    // Served from the cached book when present, otherwise from a query that skips the full row
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<BookVersion> getBookVersionById(Long id) {
+        return bookCache.peekById(id)
+                .map(book -> new BookVersion(book.getId(), book.getUpdatedAt()))
+                .or(() -> bookRepository.findVersionById(id));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<BookVersion> getBookVersionByIsbn(String isbn) {
+        return bookCache.peekByIsbn(isbn)
+                .map(book -> new BookVersion(book.getId(), book.getUpdatedAt()))
+                .or(() -> bookRepository.findVersionByIsbn(isbn));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CatalogVersion getCatalogVersion() {
+        return bookCache.getCatalogVersion(bookRepository::findCatalogVersion);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookDTO> getAllBooks() {
         log.debug("Fetching all books");
-        return bookRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findAllProjectedBy();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBooks(OutputStream outputStream) throws IOException {
+        log.info("Exporting catalog as NDJSON");
+        long exported = 0;
+
+        // Rows are projected straight into DTOs, so nothing accumulates in the persistence context
+        try (Stream<BookDTO> books = bookRepository.streamAllByOrderById()) {
+            for (BookDTO book : (Iterable<BookDTO>) books::iterator) {
+                outputStream.write(objectMapper.writeValueAsBytes(book));
+                outputStream.write('\n');
+                exported++;
+            }
+        }
+        // Only a complete export ends with this line, so clients can detect a truncated download
+        outputStream.write(objectMapper.writeValueAsBytes(new ExportTrailer(true, exported)));
+        outputStream.write('\n');
+        outputStream.flush();
+
+        log.info("Exported {} books", exported);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<BookDTO> getAllBooksPageable(Pageable pageable) {
         log.debug("Fetching books with pagination: {}", pageable);
-        return bookRepository.findAll(pageable)
-                .map(this::convertToDTO);
+        return bookRepository.findAllProjectedBy(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookDTO> getBooksByCursor(String cursor, int size, String sortBy, String sortDir) {
+        log.debug("Fetching books with cursor pagination, sortBy: {} {}", sortBy, sortDir);
+        return scrollBooks(BookSpecifications.search(null, null, null), cursor, size, sortBy, sortDir);
     }
 
     @Override
@@ -89,9 +187,12 @@ public class BookServiceImpl implements BookService {
 
         updateBookFields(existingBook, bookDTO);
         Book updatedBook = bookRepository.save(existingBook);
+        BookDTO updatedBookDTO = convertToDTO(updatedBook);
+        bookCache.evict(id);
+        catalogSearchIndex.index(updatedBookDTO);
 
         log.info("Successfully updated book with ID: {}", updatedBook.getId());
-        return convertToDTO(updatedBook);
+        return updatedBookDTO;
     }
 
     @Override
@@ -103,6 +204,8 @@ public class BookServiceImpl implements BookService {
         }
 
         bookRepository.deleteById(id);
+        bookCache.evict(id);
+        catalogSearchIndex.remove(id);
         log.info("Successfully deleted book with ID: {}", id);
         return true;
     }
@@ -111,64 +214,78 @@ public class BookServiceImpl implements BookService {
     @Transactional(readOnly = true)
     public List<BookDTO> searchBooksByTitle(String title) {
         log.debug("Searching books by title: {}", title);
-        return bookRepository.findByTitleContainingIgnoreCase(title).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findAllProjected(BookSpecifications.search(title, null, null));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookDTO> searchBooksByAuthor(String author) {
         log.debug("Searching books by author: {}", author);
-        return bookRepository.findByAuthorContainingIgnoreCase(author).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findAllProjected(BookSpecifications.search(null, author, null));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookDTO> getBooksByCategory(String category) {
         log.debug("Fetching books by category: {}", category);
-        return bookRepository.findByCategoryIgnoreCase(category).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findByCategoryIgnoreCase(category);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookDTO> getBooksByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
         log.debug("Fetching books by price range: {} - {}", minPrice, maxPrice);
-        return bookRepository.findByPriceBetween(minPrice, maxPrice).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findByPriceBetween(minPrice, maxPrice);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookDTO> getBooksInStock() {
         log.debug("Fetching books in stock");
-        return bookRepository.findBooksInStock().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findBooksInStock();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<BookDTO> searchBooks(String title, String author, String category, Pageable pageable) {
         log.debug("Searching books with filters - Title: {}, Author: {}, Category: {}", title, author, category);
-        return bookRepository.searchBooks(title, author, category, pageable)
-                .map(this::convertToDTO);
+        return trigramSearchSupport.isAvailable()
+                ? bookRepository.findAllProjected(BookSpecifications.search(title, author, category), pageable)
+                : bookRepository.searchBooks(title, author, category, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookDTO> searchBooksByCursor(String title, String author, String category,
+                                                   String cursor, int size, String sortBy, String sortDir) {
+        log.debug("Searching books with cursor pagination - Title: {}, Author: {}, Category: {}", title, author, category);
+        return scrollBooks(BookSpecifications.search(title, author, category), cursor, size, sortBy, sortDir);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Page<BookDTO> searchBooksRanked(String query, Pageable pageable) {
+        log.debug("Ranked catalog search: {}", query);
+        return catalogSearchIndex.search(query, pageable);
     }
 
     @Override
     public boolean updateStock(Long id, Integer newStock) {
         log.info("Updating stock for book ID: {} to {}", id, newStock);
 
+        // Derived from the copies for these titles; an overwrite would disagree with them until the next copy event
+        if (bookCopyService.isLentPerCopy(id)) {
+            throw new StockManagedByCopiesException("Stock of book ID " + id
+                    + " is derived from its registered copies and cannot be set directly");
+        }
+
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException("Book not found with ID: " + id));
 
         book.setStock(newStock);
         bookRepository.save(book);
+        bookCache.evict(id);
+        catalogSearchIndex.index(convertToDTO(book));
 
         log.info("Successfully updated stock for book ID: {}", id);
         return true;
@@ -192,6 +309,53 @@ public class BookServiceImpl implements BookService {
         return bookRepository.count();
     }
 
+    private CursorPage<BookDTO> scrollBooks(Specification<Book> specification, String cursor,
+                                            int size, String sortBy, String sortDir) {
+        if (!CURSOR_SORT_KEYS.containsKey(sortBy)) {
+            throw new InvalidCursorException("Cursor pagination cannot sort by: " + sortBy);
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, sortBy);
+        KeysetScrollPosition position = cursor == null || cursor.isBlank()
+                ? ScrollPosition.keyset()
+                : decodeCursor(cursor, sortBy, direction);
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+
+        // Spring Data appends the id to the sort, so the keyset is unique and no OFFSET or COUNT is issued
+        Window<BookDTO> window = bookRepository.findBy(specification,
+                        query -> query.sortBy(sort).limit(pageSize).scroll(position))
+                .map(this::convertToDTO);
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            Map<String, Object> keys = new LinkedHashMap<>(last.getKeys());
+            keys.put(CURSOR_SORT, sortBy);
+            keys.put(CURSOR_DIRECTION, direction.name());
+            nextCursor = CursorCodec.encode(keys);
+        }
+        return new CursorPage<>(window.getContent(), window.size(), window.hasNext(), nextCursor);
+    }
+
+    private KeysetScrollPosition decodeCursor(String cursor, String sortBy, Sort.Direction direction) {
+        Map<String, String> values = CursorCodec.decode(cursor);
+        if (!sortBy.equals(values.get(CURSOR_SORT)) || !direction.name().equals(values.get(CURSOR_DIRECTION))
+                || values.get(sortBy) == null || values.get("id") == null) {
+            throw new InvalidCursorException("Cursor does not match the requested sort order");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            keys.put(sortBy, CURSOR_SORT_KEYS.get(sortBy).apply(values.get(sortBy)));
+            keys.put("id", Long.valueOf(values.get("id")));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private record ExportTrailer(boolean exportComplete, long books) {
+    }
+
     // Helper methods for conversion
     private BookDTO convertToDTO(Book book) {
         BookDTO dto = new BookDTO();
@@ -204,6 +368,7 @@ public class BookServiceImpl implements BookService {
         dto.setStock(book.getStock());
         dto.setPublishedYear(book.getPublishedYear());
         dto.setCategory(book.getCategory());
+        dto.setUpdatedAt(book.getUpdatedAt());
         return dto;
     }
 
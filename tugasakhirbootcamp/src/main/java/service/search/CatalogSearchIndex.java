@@ -0,0 +1,248 @@
+package service.search;
+
+import dto.BookDTO;
+import entity.Book;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import repository.BookRepository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the book catalog, ranked with BM25.
+ * Title and author terms are weighted higher than category and description terms.
+ * Reads share a read lock; index updates are applied after the surrounding transaction commits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedBook> documents = new HashMap<>();
+    private long totalLength;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Book> books = bookRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            books.forEach(book -> put(toDocument(book)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Catalog search index built with {} books in {} ms", books.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Adds or replaces a book in the index once the current transaction commits.
+     */
+    public void index(BookDTO book) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeDocument(book.getId());
+                put(book);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Removes a book from the index once the current transaction commits.
+     */
+    public void remove(Long bookId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeDocument(bookId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Applies a stock change made outside {@code BookService} (borrowing and returning)
+     * to the stored snapshot once the current transaction commits.
+     */
+    public void adjustStock(Long bookId, int delta) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                IndexedBook document = documents.get(bookId);
+                if (document != null && document.book().getStock() != null) {
+                    document.book().setStock(document.book().getStock() + delta);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public Page<BookDTO> search(String query, Pageable pageable) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 0 : (double) totalLength / documentCount;
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (String term : queryTerms) {
+                Map<Long, Integer> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+                termPostings.forEach((bookId, frequency) -> {
+                    double lengthNorm = 1 - B + B * documents.get(bookId).length() / averageLength;
+                    double score = idf * frequency * (K1 + 1) / (frequency + K1 * lengthNorm);
+                    scores.merge(bookId, score, Double::sum);
+                });
+            }
+
+            List<BookDTO> ranked = scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .map(entry -> copyOf(documents.get(entry.getKey()).book()))
+                    .toList();
+
+            return new PageImpl<>(ranked, pageable, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Must be called while holding the write lock
+    private void put(BookDTO book) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addField(frequencies, book.getTitle(), TITLE_WEIGHT);
+        addField(frequencies, book.getAuthor(), AUTHOR_WEIGHT);
+        addField(frequencies, book.getCategory(), CATEGORY_WEIGHT);
+        addField(frequencies, book.getDescription(), DESCRIPTION_WEIGHT);
+
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        documents.put(book.getId(), new IndexedBook(copyOf(book), frequencies, length));
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(book.getId(), frequency));
+        totalLength += length;
+    }
+
+    // Must be called while holding the write lock
+    private void removeDocument(Long bookId) {
+        IndexedBook previous = documents.remove(bookId);
+        if (previous == null) {
+            return;
+        }
+        previous.frequencies().keySet().forEach(term -> {
+            Map<Long, Integer> termPostings = postings.get(term);
+            termPostings.remove(bookId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+        totalLength -= previous.length();
+    }
+
+    private void addField(Map<String, Integer> frequencies, String value, int weight) {
+        for (String token : tokenize(value)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private BookDTO toDocument(Book book) {
+        return new BookDTO(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getPrice(),
+                book.getDescription(), book.getStock(), book.getPublishedYear(), book.getCategory(),
+                book.getUpdatedAt());
+    }
+
+    private BookDTO copyOf(BookDTO book) {
+        return new BookDTO(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getPrice(),
+                book.getDescription(), book.getStock(), book.getPublishedYear(), book.getCategory(),
+                book.getUpdatedAt());
+    }
+
+    private record IndexedBook(BookDTO book, Map<String, Integer> frequencies, int length) {
+    }
+}
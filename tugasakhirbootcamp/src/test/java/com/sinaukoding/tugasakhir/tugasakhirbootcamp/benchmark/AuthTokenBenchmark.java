@@ -0,0 +1,66 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.benchmark;
+
+import entity.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import secruity.jwt.JwtUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token verification cost in AuthTokenFilter: the old path, which decoded the key
+ * and parsed the token twice, against the single parse over a cached key and parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthTokenBenchmark {
+
+    private static final String SECRET = "eW91clN1cGVyU2VjcmV0S2V5VGhhdElzQXRMZWFzdDI1NkJpdHNMb25nQW5kUmFuZG9t";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        User user = new User();
+        user.setUsername("librarian");
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null));
+    }
+
+    // What AuthTokenFilter did before: validate, then rebuild key and parser to read the subject
+    @Benchmark
+    public String decodeKeyAndParseTwice() {
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build().parse(token);
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String cachedParserSinglePass() {
+        return jwtUtils.parseClaims(token).orElseThrow().getSubject();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthTokenBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.benchmark;
+
+import dto.BookDTO;
+import entity.Book;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.BookRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old list read path (managed entities + field-by-field DTO copy) with the
+ * constructor projection used by BookServiceImpl. Run {@link #main} and read the
+ * {@code gc.alloc.rate.norm} column for bytes allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookReadPathBenchmark {
+
+    private static final int CATALOG_SIZE = 5_000;
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        bookRepository = context.getBean(BookRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        pageable = PageRequest.of(3, pageSize);
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            Book book = new Book();
+            book.setTitle("Benchmark Title " + i);
+            book.setAuthor("Author " + (i % 300));
+            book.setIsbn(String.format("978%010d", i));
+            book.setPrice(new BigDecimal("75000.00"));
+            book.setDescription("Description for benchmark book number " + i);
+            book.setStock(i % 7);
+            book.setPublishedYear(1990 + i % 30);
+            book.setCategory("Category " + (i % 12));
+            books.add(book);
+        }
+        bookRepository.saveAll(books);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDTO> entityHydration() {
+        return readOnlyTransaction.execute(status -> bookRepository.findAll(pageable)
+                .map(BookReadPathBenchmark::convertToDTO)
+                .getContent());
+    }
+
+    @Benchmark
+    public List<BookDTO> constructorProjection() {
+        return readOnlyTransaction.execute(status -> bookRepository.findAllProjectedBy(pageable).getContent());
+    }
+
+    // Same copy BookServiceImpl performed before the projection read path
+    private static BookDTO convertToDTO(Book book) {
+        BookDTO dto = new BookDTO();
+        dto.setId(book.getId());
+        dto.setTitle(book.getTitle());
+        dto.setAuthor(book.getAuthor());
+        dto.setIsbn(book.getIsbn());
+        dto.setPrice(book.getPrice());
+        dto.setDescription(book.getDescription());
+        dto.setStock(book.getStock());
+        dto.setPublishedYear(book.getPublishedYear());
+        dto.setCategory(book.getCategory());
+        return dto;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookReadPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
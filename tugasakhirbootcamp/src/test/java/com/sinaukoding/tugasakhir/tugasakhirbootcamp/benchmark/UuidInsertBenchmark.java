@@ -0,0 +1,82 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.benchmark;
+
+import entity.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput into a table keyed like {@code m_borrowings} that already holds
+ * {@link #EXISTING_ROWS} rows, with random v4 keys ({@code GenerationType.UUID}) versus the
+ * time-ordered v7 keys of {@link UuidV7Generator}. Each operation inserts one JDBC batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int EXISTING_ROWS = 500_000;
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT =
+            "INSERT INTO bench_borrowings (id, book_id, member_id, borrow_date, status) VALUES (?, ?, ?, ?, ?)";
+
+    @Param({"random", "timeOrdered"})
+    private String generator;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+    private Supplier<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        ids = generator.equals("random") ? UUID::randomUUID : UuidV7Generator::nextUuid;
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_borrowings");
+        jdbcTemplate.execute("CREATE TABLE bench_borrowings (id UUID PRIMARY KEY, book_id BIGINT NOT NULL, " +
+                "member_id BIGINT NOT NULL, borrow_date DATE NOT NULL, status VARCHAR(20) NOT NULL)");
+        for (int inserted = 0; inserted < EXISTING_ROWS; inserted += BATCH_SIZE) {
+            insertBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int[] insertBatch() {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        Date today = Date.valueOf(LocalDate.now());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            rows.add(new Object[]{ids.get(), (long) i % 1_000, (long) i % 5_000, today, "BORROWED"});
+        }
+        return transaction.execute(status -> jdbcTemplate.batchUpdate(INSERT, rows));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UuidInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,49 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import config.LogSamplingTurboFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplingTurboFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger jwtLogger = loggerContext.getLogger("secruity.jwt.JwtUtils");
+    private LogSamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new LogSamplingTurboFilter();
+        filter.setLoggers("secruity.jwt, service.auth");
+        filter.setEventsPerSecond(0.001);
+        filter.setBurst(2);
+        filter.start();
+    }
+
+    @Test
+    void decide_DropsRepeatedWarningsBeyondBurst() {
+        assertEquals(FilterReply.NEUTRAL, decide(jwtLogger, Level.WARN, "JWT token is expired: {}"));
+        assertEquals(FilterReply.NEUTRAL, decide(jwtLogger, Level.WARN, "JWT token is expired: {}"));
+        assertEquals(FilterReply.DENY, decide(jwtLogger, Level.WARN, "JWT token is expired: {}"));
+
+        assertEquals(FilterReply.NEUTRAL, decide(jwtLogger, Level.WARN, "Invalid JWT signature: {}"));
+    }
+
+    @Test
+    void decide_IgnoresOtherLoggersAndLowerLevels() {
+        Logger other = loggerContext.getLogger("service.BorrowingService");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(other, Level.ERROR, "Checkout failed: {}"));
+            assertEquals(FilterReply.NEUTRAL, decide(jwtLogger, Level.INFO, "Token issued for {}"));
+        }
+    }
+
+    private FilterReply decide(Logger logger, Level level, String format) {
+        return filter.decide(null, logger, level, format, new Object[]{"x"}, null);
+    }
+}
@@ -3,35 +3,65 @@ package com.sinaukoding.tugasakhir.tugasakhirbootcamp.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import controller.BookController;
 import dto.BookDTO;
+import dto.response.BookVersion;
+import dto.response.CatalogVersion;
 import exception.BookNotFoundException;
 import exception.DuplicateIsbnException;
+import exception.ExportUnavailableException;
+import exception.GlobalExceptionHandler;
+import exception.InvalidCursorException;
+import exception.StockManagedByCopiesException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 //import org.springframework.boot.test.mock.mockito.MockitoBean; // ✅ pakai MockitoBean
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import secruity.jwt.AuthEntryPointJwt;
 import secruity.jwt.AuthTokenFilter;
+import secruity.jwt.JwtUtils;
+import secruity.jwt.TokenRevocationList;
+import secruity.ratelimit.RateLimitFilter;
+import service.BookImportService;
 import service.BookService;
+import service.CatalogExporter;
 import config.SecurityConfig;
 import service.UserService;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BookController.class)
-@Import({SecurityConfig.class, AuthEntryPointJwt.class, AuthTokenFilter.class})
+@Import({BookController.class, GlobalExceptionHandler.class, SecurityConfig.class, AuthEntryPointJwt.class, AuthTokenFilter.class,
+        RateLimitFilter.class, BookControllerTest.MetricsConfig.class})
 class BookControllerTest {
 
     @Autowired
@@ -40,9 +70,24 @@ class BookControllerTest {
     @MockitoBean
     private BookService bookService;
 
+    @MockitoBean
+    private BookImportService bookImportService;
+
+    @MockitoBean
+    private CatalogExporter catalogExporter;
+
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockitoBean
+    private AuthenticationProvider authenticationProvider;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -100,6 +145,7 @@ class BookControllerTest {
     @Test
     @WithMockUser(roles = {"ADMIN", "LIBRARIAN", "MEMBER"})
     void getBookById_Found() throws Exception {
+        when(bookService.getBookVersionById(anyLong())).thenReturn(Optional.of(new BookVersion(1L, null)));
         when(bookService.getBookById(anyLong())).thenReturn(Optional.of(bookDTO));
 
         mockMvc.perform(get("/api/books/1")
@@ -109,6 +155,108 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.title").value("Test Book"));
     }
 
+    @Test
+    @WithMockUser(roles = {"ADMIN", "LIBRARIAN", "MEMBER"})
+    void getBooksByCursor_CatalogUnchanged_NotModified() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        long lastUpdated = updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        when(bookService.getCatalogVersion()).thenReturn(new CatalogVersion(3, updatedAt));
+
+        mockMvc.perform(get("/api/books/cursor")
+                        .header("If-None-Match", "\"catalog-3-" + lastUpdated + "\""))
+                .andExpect(status().isNotModified());
+
+        verify(bookService, never()).getBooksByCursor(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "LIBRARIAN", "MEMBER"})
+    void getBooksByCursor_TamperedCursor_BadRequest() throws Exception {
+        when(bookService.getCatalogVersion()).thenReturn(new CatalogVersion(3, LocalDateTime.of(2024, 1, 1, 10, 0)));
+        when(bookService.getBooksByCursor(eq("tampered"), anyInt(), any(), any()))
+                .thenThrow(new InvalidCursorException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/books/cursor")
+                        .param("cursor", "tampered"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Cursor"))
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "LIBRARIAN", "MEMBER"})
+    void searchBooksRanked_OutOfRangePaging_IsClamped() throws Exception {
+        when(bookService.searchBooksRanked(eq("laskar"), any(Pageable.class))).thenReturn(Page.empty());
+
+        mockMvc.perform(get("/api/books/search/ranked").param("q", "laskar").param("size", "0"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/search/ranked").param("q", "laskar").param("page", "-1").param("size", "5000"))
+                .andExpect(status().isOk());
+
+        verify(bookService).searchBooksRanked("laskar", PageRequest.of(0, 1));
+        verify(bookService).searchBooksRanked("laskar", PageRequest.of(0, 100));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "LIBRARIAN", "MEMBER"})
+    void exportBooks_StreamsNdjsonAttachment() throws Exception {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        when(catalogExporter.start()).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/api/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send((objectMapper.writeValueAsString(bookDTO) + "\n").getBytes(StandardCharsets.UTF_8),
+                MediaType.APPLICATION_NDJSON);
+        emitter.complete();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"books.ndjson\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(bookDTO) + "\n", body);
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "LIBRARIAN", "MEMBER"})
+    void exportBooks_TooManyRunning_ServiceUnavailable() throws Exception {
+        when(catalogExporter.start()).thenThrow(new ExportUnavailableException("Too many catalog exports in progress"));
+
+        mockMvc.perform(get("/api/books/export"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"))
+                .andExpect(jsonPath("$.message").value("Too many catalog exports in progress"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "LIBRARIAN", "MEMBER"})
+    void updateStock_TitleLentPerCopy_Conflict() throws Exception {
+        when(bookService.updateStock(1L, 5))
+                .thenThrow(new StockManagedByCopiesException("Stock of book ID 1 is derived from its registered copies"));
+
+        mockMvc.perform(patch("/api/books/1/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stock\": 5}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Stock Managed By Copies"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "LIBRARIAN", "MEMBER"})
+    void getBookById_NotModified() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        long lastModified = updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        when(bookService.getBookVersionById(1L)).thenReturn(Optional.of(new BookVersion(1L, updatedAt)));
+
+        mockMvc.perform(get("/api/books/1")
+                        .header("If-None-Match", "\"1-" + lastModified + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(bookService, never()).getBookById(anyLong());
+    }
+
     @Test
     @WithMockUser(roles = {"ADMIN", "LIBRARIAN", "MEMBER"})
     void getBookById_NotFound() throws Exception {
@@ -182,4 +330,12 @@ class BookControllerTest {
         mockMvc.perform(get("/api/books/1"))
                 .andExpect(status().isUnauthorized());
     }
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
 }
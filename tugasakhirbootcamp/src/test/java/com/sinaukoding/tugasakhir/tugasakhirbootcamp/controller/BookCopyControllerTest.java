@@ -0,0 +1,87 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.controller;
+
+import config.SecurityConfig;
+import controller.BookCopyController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import secruity.jwt.AuthEntryPointJwt;
+import secruity.jwt.AuthTokenFilter;
+import secruity.jwt.JwtUtils;
+import secruity.jwt.TokenRevocationList;
+import secruity.ratelimit.RateLimitFilter;
+import service.BookCopyService;
+import service.UserService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookCopyController.class)
+@Import({BookCopyController.class, SecurityConfig.class, AuthEntryPointJwt.class, AuthTokenFilter.class,
+        RateLimitFilter.class, BookCopyControllerTest.MetricsConfig.class})
+class BookCopyControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BookCopyService bookCopyService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockitoBean
+    private AuthenticationProvider authenticationProvider;
+
+    @Test
+    @WithMockUser(username = "member", roles = "MEMBER")
+    void addCopies_Member_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/books/1/copies")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"barcodes\":[\"BM-0\"]}"))
+                .andExpect(status().isForbidden());
+
+        verify(bookCopyService, never()).addCopies(anyLong(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "librarian", roles = "LIBRARIAN")
+    void addCopies_Librarian_Created() throws Exception {
+        mockMvc.perform(post("/api/books/1/copies")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"barcodes\":[\"BM-0\"]}"))
+                .andExpect(status().isCreated());
+
+        verify(bookCopyService).addCopies(1L, List.of("BM-0"));
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
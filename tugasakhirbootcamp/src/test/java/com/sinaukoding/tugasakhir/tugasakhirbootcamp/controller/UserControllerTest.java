@@ -0,0 +1,98 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.controller;
+
+import config.SecurityConfig;
+import controller.UserController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import secruity.jwt.AuthEntryPointJwt;
+import secruity.jwt.AuthTokenFilter;
+import secruity.jwt.JwtUtils;
+import secruity.jwt.TokenRevocationList;
+import secruity.ratelimit.RateLimitFilter;
+import service.UserService;
+
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserController.class)
+@Import({UserController.class, SecurityConfig.class, AuthEntryPointJwt.class, AuthTokenFilter.class,
+        RateLimitFilter.class, UserControllerTest.MetricsConfig.class})
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockitoBean
+    private AuthenticationProvider authenticationProvider;
+
+    @Test
+    @WithMockUser(username = "member", roles = "MEMBER")
+    void updateRoles_NonAdmin_Forbidden() throws Exception {
+        mockMvc.perform(put("/api/users/member/roles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roles\":[\"ADMIN\"]}"))
+                .andExpect(status().isForbidden());
+
+        verify(userService, never()).updateRoles(anyString(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "librarian", roles = "LIBRARIAN")
+    void changePassword_NonAdmin_Forbidden() throws Exception {
+        mockMvc.perform(put("/api/users/admin/password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"password\":\"takeover\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/api/users/admin/enabled").param("enabled", "false"))
+                .andExpect(status().isForbidden());
+
+        verify(userService, never()).changePassword(anyString(), anyString());
+        verify(userService, never()).setEnabled(anyString(), anyBoolean());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void updateRoles_Admin_NoContent() throws Exception {
+        mockMvc.perform(put("/api/users/member/roles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roles\":[\"LIBRARIAN\"]}"))
+                .andExpect(status().isNoContent());
+
+        verify(userService).updateRoles("member", Set.of("LIBRARIAN"));
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -1,32 +1,49 @@
 package com.sinaukoding.tugasakhir.tugasakhirbootcamp.impl;
 
-
+import config.TrigramSearchSupport;
 import dto.BookDTO;
+import dto.response.CatalogVersion;
 import entity.Book;
 import exception.BookNotFoundException;
 import exception.DuplicateIsbnException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import exception.StockManagedByCopiesException;
 import repository.BookRepository;
+import service.BookCopyService;
+import service.cache.BookCache;
 import service.impl.BookServiceImpl;
+import service.search.CatalogSearchIndex;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +52,18 @@ class BookServiceImplTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private TrigramSearchSupport trigramSearchSupport;
+
+    @Mock
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @Mock
+    private BookCopyService bookCopyService;
+
+    @Spy
+    private BookCache bookCache = new BookCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -107,6 +136,95 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void getBookById_SecondCallServedFromCache() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        bookService.getBookById(1L);
+        Optional<BookDTO> cachedBook = bookService.getBookById(1L);
+
+        assertTrue(cachedBook.isPresent());
+        assertEquals(bookDTO.getTitle(), cachedBook.get().getTitle());
+        verify(bookRepository, times(1)).findById(1L);
+        assertEquals(1, bookCache.stats().hitCount());
+    }
+
+    @Test
+    void getBookByIsbn_ServedFromCacheAfterLookupById() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        bookService.getBookById(1L);
+        Optional<BookDTO> cachedBook = bookService.getBookByIsbn("1234567890123");
+
+        assertTrue(cachedBook.isPresent());
+        verify(bookRepository, never()).findByIsbn(anyString());
+    }
+
+    @Test
+    void updateStock_EvictsCachedBook() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        bookService.getBookById(1L);
+        bookService.updateStock(1L, 3);
+        Optional<BookDTO> reloadedBook = bookService.getBookById(1L);
+
+        assertEquals(3, reloadedBook.get().getStock());
+        verify(bookCache).evict(1L);
+        verify(bookRepository, times(3)).findById(1L);
+    }
+
+    @Test
+    void updateStock_WhileReadIsLoading_NextReadSeesNewStock() throws Exception {
+        AtomicInteger storedStock = new AtomicInteger(10);
+        AtomicBoolean firstRead = new AtomicBoolean(true);
+        CountDownLatch readerLoaded = new CountDownLatch(1);
+        CountDownLatch releaseReader = new CountDownLatch(1);
+        when(bookRepository.findById(1L)).thenAnswer(invocation -> {
+            Book row = copyOf(book, storedStock.get());
+            if (firstRead.compareAndSet(true, false)) {
+                // The reader has the old row but has not cached it yet
+                readerLoaded.countDown();
+                releaseReader.await(5, TimeUnit.SECONDS);
+            }
+            return Optional.of(row);
+        });
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
+            Book saved = invocation.getArgument(0);
+            storedStock.set(saved.getStock());
+            return saved;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<BookDTO>> read = executor.submit(() -> bookService.getBookById(1L));
+            assertTrue(readerLoaded.await(5, TimeUnit.SECONDS));
+            Future<Boolean> update = executor.submit(() -> bookService.updateStock(1L, 3));
+            Thread.sleep(100);
+            releaseReader.countDown();
+
+            assertEquals(10, read.get(5, TimeUnit.SECONDS).orElseThrow().getStock());
+            assertTrue(update.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(3, bookService.getBookById(1L).orElseThrow().getStock());
+    }
+
+    @Test
+    void getCatalogVersion_KeptInMemoryUntilABookChanges() {
+        when(bookRepository.findCatalogVersion()).thenReturn(new CatalogVersion(1, null));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        bookService.getCatalogVersion();
+        bookService.getCatalogVersion();
+        verify(bookRepository, times(1)).findCatalogVersion();
+
+        bookService.updateStock(1L, 3);
+        bookService.getCatalogVersion();
+        verify(bookRepository, times(2)).findCatalogVersion();
+    }
+
     @Test
     void updateBook_Success() {
         Book updatedBook = new Book();
@@ -196,15 +314,41 @@ class BookServiceImplTest {
     @Test
     void getAllBooksPageable_Success() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Book> bookPage = new PageImpl<>(Arrays.asList(book), pageable, 1);
-        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
+        Page<BookDTO> bookPage = new PageImpl<>(Arrays.asList(bookDTO), pageable, 1);
+        when(bookRepository.findAllProjectedBy(pageable)).thenReturn(bookPage);
 
         Page<BookDTO> result = bookService.getAllBooksPageable(pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(bookDTO.getTitle(), result.getContent().get(0).getTitle());
-        verify(bookRepository, times(1)).findAll(pageable);
+        verify(bookRepository, times(1)).findAllProjectedBy(pageable);
+    }
+
+    @Test
+    void searchBooks_TrigramAvailable_UsesSpecificationQuery() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<BookDTO> bookPage = new PageImpl<>(Arrays.asList(bookDTO), pageable, 1);
+        when(trigramSearchSupport.isAvailable()).thenReturn(true);
+        when(bookRepository.findAllProjected(any(Specification.class), eq(pageable))).thenReturn(bookPage);
+
+        Page<BookDTO> result = bookService.searchBooks("test", null, null, pageable);
+
+        assertEquals(1, result.getTotalElements());
+        verify(bookRepository, never()).searchBooks(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void searchBooks_TrigramUnavailable_FallsBackToJpqlQuery() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<BookDTO> bookPage = new PageImpl<>(Arrays.asList(bookDTO), pageable, 1);
+        when(trigramSearchSupport.isAvailable()).thenReturn(false);
+        when(bookRepository.searchBooks("test", null, null, pageable)).thenReturn(bookPage);
+
+        Page<BookDTO> result = bookService.searchBooks("test", null, null, pageable);
+
+        assertEquals(1, result.getTotalElements());
+        verify(bookRepository, never()).findAllProjected(any(Specification.class), any(Pageable.class));
     }
 
     @Test
@@ -220,6 +364,15 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).save(book);
     }
 
+    @Test
+    void updateStock_TitleLentPerCopy_Rejected() {
+        when(bookCopyService.isLentPerCopy(1L)).thenReturn(true);
+
+        assertThrows(StockManagedByCopiesException.class, () -> bookService.updateStock(1L, 5));
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookCache, never()).evict(anyLong());
+    }
+
     @Test
     void updateStock_BookNotFound_ThrowsException() {
         when(bookRepository.findById(anyLong())).thenReturn(Optional.empty());
@@ -228,5 +381,17 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findById(1L);
         verify(bookRepository, never()).save(any(Book.class));
     }
-}
 
+    private Book copyOf(Book source, int stock) {
+        Book copy = new Book();
+        copy.setId(source.getId());
+        copy.setTitle(source.getTitle());
+        copy.setAuthor(source.getAuthor());
+        copy.setIsbn(source.getIsbn());
+        copy.setPrice(source.getPrice());
+        copy.setStock(stock);
+        copy.setPublishedYear(source.getPublishedYear());
+        copy.setCategory(source.getCategory());
+        return copy;
+    }
+}
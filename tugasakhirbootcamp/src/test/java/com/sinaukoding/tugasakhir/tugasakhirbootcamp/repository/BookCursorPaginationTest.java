@@ -0,0 +1,137 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.repository;
+
+import config.TrigramSearchSupport;
+import dto.BookDTO;
+import dto.response.CursorPage;
+import entity.Book;
+import exception.InvalidCursorException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import repository.BookRepository;
+import service.BookCopyService;
+import service.cache.BookCache;
+import service.cursor.CursorCodec;
+import service.impl.BookServiceImpl;
+import service.search.CatalogSearchIndex;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks the keyset-paginated catalog against a real database and checks that the pages cover
+ * every book exactly once, also when many books share the same sort value.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({JpaTestConfig.class, BookServiceImpl.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class BookCursorPaginationTest {
+
+    private static final int BOOKS = 130;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @MockitoBean
+    private TrigramSearchSupport trigramSearchSupport;
+
+    @MockitoBean
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @MockitoBean
+    private BookCache bookCache;
+
+    @MockitoBean
+    private BookCopyService bookCopyService;
+
+    @BeforeEach
+    void setUp() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setAuthor("Author " + (i % 7));
+            book.setIsbn(String.format("978%010d", i));
+            // Only five distinct prices, so most of the keyset is decided by the id tie-breaker
+            book.setPrice(new BigDecimal(10000 + (i % 5) * 1000));
+            book.setStock(i % 3);
+            books.add(book);
+        }
+        bookRepository.saveAll(books);
+    }
+
+    @Test
+    void scrollingByPriceAscending_VisitsEveryBookOnce() {
+        assertVisitsEveryBookOnce("price", "asc", 7);
+    }
+
+    @Test
+    void scrollingByStockDescending_VisitsEveryBookOnce() {
+        assertVisitsEveryBookOnce("stock", "desc", 9);
+    }
+
+    @Test
+    void scrollingById_VisitsEveryBookOnce() {
+        assertVisitsEveryBookOnce("id", "asc", 10);
+    }
+
+    @Test
+    void pageSize_IsClampedToTheAllowedRange() {
+        assertEquals(1, bookService.getBooksByCursor(null, 0, "id", "asc").getSize());
+        assertEquals(1, bookService.getBooksByCursor(null, -5, "id", "asc").getSize());
+
+        CursorPage<BookDTO> capped = bookService.getBooksByCursor(null, Integer.MAX_VALUE, "id", "asc");
+        assertEquals(100, capped.getSize());
+        assertTrue(capped.isHasNext());
+    }
+
+    @Test
+    void tamperedCursor_IsRejected() {
+        String cursor = bookService.getBooksByCursor(null, 5, "price", "asc").getNextCursor();
+
+        // A cursor is only valid for the sort it was issued for
+        assertThrows(InvalidCursorException.class, () -> bookService.getBooksByCursor(cursor, 5, "title", "asc"));
+        assertThrows(InvalidCursorException.class, () -> bookService.getBooksByCursor(cursor, 5, "price", "desc"));
+
+        Map<String, String> values = new LinkedHashMap<>(CursorCodec.decode(cursor));
+        values.put("id", "not-a-number");
+        String tampered = CursorCodec.encode(values);
+        assertThrows(InvalidCursorException.class, () -> bookService.getBooksByCursor(tampered, 5, "price", "asc"));
+
+        assertThrows(InvalidCursorException.class, () -> bookService.getBooksByCursor("%%%", 5, "price", "asc"));
+    }
+
+    private void assertVisitsEveryBookOnce(String sortBy, String sortDir, int size) {
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<BookDTO> page = bookService.getBooksByCursor(cursor, size, sortBy, sortDir);
+            page.getContent().forEach(book -> visited.add(book.getId()));
+            cursor = page.getNextCursor();
+            assertTrue(++pages <= BOOKS, "pagination does not terminate");
+        } while (cursor != null);
+
+        Set<Long> distinct = new HashSet<>(visited);
+        assertEquals(visited.size(), distinct.size(), "a book was returned twice");
+        assertEquals(BOOKS, distinct.size(), "a book was skipped");
+    }
+}
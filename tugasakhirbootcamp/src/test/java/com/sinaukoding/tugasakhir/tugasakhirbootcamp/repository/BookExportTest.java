@@ -0,0 +1,115 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.TrigramSearchSupport;
+import entity.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import repository.BookRepository;
+import service.BookCopyService;
+import service.cache.BookCache;
+import service.impl.BookServiceImpl;
+import service.search.CatalogSearchIndex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams the catalog export from a real database and checks the NDJSON framing: one complete
+ * JSON object per line, in id order, each line terminated by a newline, followed by a trailer
+ * line that marks the export as complete.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({JpaTestConfig.class, BookServiceImpl.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class BookExportTest {
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private TrigramSearchSupport trigramSearchSupport;
+
+    @MockitoBean
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @MockitoBean
+    private BookCache bookCache;
+
+    @MockitoBean
+    private BookCopyService bookCopyService;
+
+    @Test
+    void exportBooks_WritesOneJsonObjectPerLine() throws IOException {
+        List<Book> books = bookRepository.saveAll(List.of(
+                book("Bumi Manusia", "9789799731234", null),
+                book("Laskar Pelangi", "9789793062792", "Novel tentang\nsepuluh anak Belitung"),
+                book("Cantik Itu Luka", "9786020366517", "Kutipan: \"Sore itu\"")));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bookService.exportBooks(output);
+        String ndjson = output.toString(StandardCharsets.UTF_8);
+
+        assertTrue(ndjson.endsWith("\n"));
+        String[] lines = ndjson.split("\n", -1);
+        assertEquals(books.size() + 2, lines.length);
+        assertEquals("", lines[books.size() + 1]);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertTrue(line.isObject());
+            assertEquals(books.get(i).getIsbn(), line.get("isbn").asText());
+            ids.add(line.get("id").asLong());
+        }
+        assertEquals(books.stream().map(Book::getId).toList(), ids);
+        // Newlines inside values are escaped, so they cannot break the framing
+        assertEquals("Novel tentang\nsepuluh anak Belitung",
+                objectMapper.readTree(lines[1]).get("description").asText());
+
+        JsonNode trailer = objectMapper.readTree(lines[books.size()]);
+        assertTrue(trailer.get("exportComplete").asBoolean());
+        assertEquals(books.size(), trailer.get("books").asInt());
+    }
+
+    @Test
+    void exportBooks_EmptyCatalog_WritesOnlyTheTrailer() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        bookService.exportBooks(output);
+
+        assertEquals("{\"exportComplete\":true,\"books\":0}\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    private Book book(String title, String isbn, String description) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setIsbn(isbn);
+        book.setDescription(description);
+        book.setPrice(new BigDecimal("95000.00"));
+        book.setStock(1);
+        return book;
+    }
+}
@@ -0,0 +1,159 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.repository;
+
+import dto.response.BookImportResult;
+import entity.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import repository.BookRepository;
+import service.BookImportService;
+import service.cache.BookCache;
+import service.search.CatalogSearchIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Imports files that mix valid and invalid rows in the same chunk against a real database and
+ * checks that every bad row is reported while the good rows around it are committed.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.import.chunk-size=4"
+})
+@Import({JpaTestConfig.class, BookImportService.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @MockitoBean
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @MockitoBean
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        Book existing = new Book();
+        existing.setTitle("Bumi Manusia");
+        existing.setAuthor("Pramoedya Ananta Toer");
+        existing.setIsbn("9789799731234");
+        existing.setPrice(new BigDecimal("95000.00"));
+        existing.setStock(3);
+        bookRepository.save(existing);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void importCsv_MixedChunk_ReportsBadRowsAndCommitsGoodOnes() throws IOException {
+        String csv = "\uFEFFtitle,author,isbn,price,stock,published_year\r\n"
+                + "Laskar Pelangi,Andrea Hirata,9789793062792,79000,4,2005\r\n"
+                + ",No Title,9780000000002,10000,1,\r\n"
+                + "Bad Price,Someone,9780000000003,abc,1,\r\n"
+                + "Already There,Pramoedya Ananta Toer,9789799731234,95000,1,\r\n"
+                + "\"Ronggeng Dukuh Paruk, Edisi Baru\",Ahmad Tohari,9789792201963,85000,2,1982\r\n"
+                + "Same Isbn Again,Ahmad Tohari,9789792201963,85000,2,\r\n"
+                + "Cantik Itu Luka,Eka Kurniawan,9786020366517,125000,5,2002\r\n"
+                + "Isbn Too Long,Someone,978000000000000000000000009,10000,1,\r\n";
+
+        BookImportResult result = bookImportService.importCsv(stream(csv));
+
+        assertEquals(8, result.getTotalRows());
+        assertEquals(3, result.getImported());
+        assertEquals(5, result.getFailed());
+        assertEquals(List.of(2L, 3L, 4L, 6L, 8L),
+                result.getErrors().stream().map(BookImportResult.RowError::getRow).toList());
+        assertEquals("Title is required", result.getErrors().get(0).getMessage());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Invalid number"));
+        assertTrue(result.getErrors().get(2).getMessage().contains("already exists"));
+        assertTrue(result.getErrors().get(3).getMessage().contains("already exists"));
+        assertTrue(result.getErrors().get(4).getMessage().startsWith("Could not insert book"));
+
+        assertEquals(Set.of("9789799731234", "9789793062792", "9789792201963", "9786020366517"),
+                bookRepository.findExistingIsbns(List.of("9789799731234", "9789793062792", "9789792201963",
+                        "9786020366517", "978000000000000000000000009", "9780000000002", "9780000000003")));
+        assertEquals("Ronggeng Dukuh Paruk, Edisi Baru",
+                bookRepository.findByIsbnIn(List.of("9789792201963")).get(0).getTitle());
+        verify(catalogSearchIndex, times(3)).index(any());
+        verify(bookCache, atLeastOnce()).catalogChanged();
+    }
+
+    @Test
+    void importJson_MixedChunk_ReportsBadRowsAndCommitsGoodOnes() throws IOException {
+        String json = "["
+                + "{\"title\":\"Laskar Pelangi\",\"author\":\"Andrea Hirata\",\"isbn\":\"9789793062792\","
+                + "\"price\":79000,\"stock\":4},"
+                + "{\"title\":\"Negative Stock\",\"author\":\"Someone\",\"isbn\":\"9780000000002\","
+                + "\"price\":10000,\"stock\":-1},"
+                + "{\"title\":\"Bad Stock\",\"author\":\"Someone\",\"isbn\":\"9780000000003\","
+                + "\"price\":10000,\"stock\":\"many\"},"
+                + "{\"title\":\"Cantik Itu Luka\",\"author\":\"Eka Kurniawan\",\"isbn\":\"9786020366517\","
+                + "\"price\":125000,\"stock\":5}"
+                + "]";
+
+        BookImportResult result = bookImportService.importJson(stream(json));
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(2L, 3L),
+                result.getErrors().stream().map(BookImportResult.RowError::getRow).toList());
+        assertEquals("Stock cannot be negative", result.getErrors().get(0).getMessage());
+        assertEquals("9780000000003", result.getErrors().get(1).getIsbn());
+        assertEquals(3, bookRepository.count());
+    }
+
+    @Test
+    void importJson_NullAndScalarElements_AreRowErrors() throws IOException {
+        String json = "["
+                + "{\"title\":\"Laskar Pelangi\",\"author\":\"Andrea Hirata\",\"isbn\":\"9789793062792\","
+                + "\"price\":79000,\"stock\":4},"
+                + "null,"
+                + "\"Ronggeng Dukuh Paruk\","
+                + "{\"title\":\"Cantik Itu Luka\",\"author\":\"Eka Kurniawan\",\"isbn\":\"9786020366517\","
+                + "\"price\":125000,\"stock\":5}"
+                + "]";
+
+        BookImportResult result = bookImportService.importJson(stream(json));
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(2L, 3L),
+                result.getErrors().stream().map(BookImportResult.RowError::getRow).toList());
+        assertEquals("Invalid book: expected a JSON object", result.getErrors().get(0).getMessage());
+        assertEquals(3, bookRepository.count());
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,151 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.repository;
+
+import dto.request.BorrowingFilter;
+import dto.response.BorrowingResponse;
+import dto.response.CursorPage;
+import entity.Book;
+import entity.Borrowing;
+import entity.Member;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import service.ActiveLoanWindow;
+import service.BookCopyService;
+import service.BorrowingService;
+import service.cache.BookCache;
+import service.search.CatalogSearchIndex;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every borrowing listing must be answered by exactly one SQL statement, however many
+ * distinct books and members the rows reference.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.enable_lazy_load_no_trans=false"
+})
+@Import({JpaTestConfig.class, BorrowingService.class, ActiveLoanWindow.class, BookCopyService.class})
+class BorrowingQueryCountTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @MockitoBean
+    private BookCache bookCache;
+
+    private Statistics statistics;
+    private Long memberId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setAuthor("Author " + i);
+            book.setIsbn("97800000000" + String.format("%02d", i));
+            book.setPrice(new BigDecimal("50000.00"));
+            book.setStock(1);
+            entityManager.persist(book);
+
+            Member member = new Member();
+            member.setName("Member " + i);
+            member.setEmail("member" + i + "@example.com");
+            member.setPhone("0800000000" + i);
+            entityManager.persist(member);
+            if (i == 0) {
+                memberId = member.getId();
+            }
+
+            Borrowing borrowing = new Borrowing();
+            borrowing.setBook(book);
+            borrowing.setMember(member);
+            borrowing.setBorrowDate(LocalDate.now().minusDays(20));
+            borrowing.setDueDate(LocalDate.now().minusDays(6));
+            borrowing.setStatus(i % 2 == 0 ? Borrowing.BorrowingStatus.OVERDUE : Borrowing.BorrowingStatus.BORROWED);
+            entityManager.persist(borrowing);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void searchBorrowings_SingleQueryPerPage() {
+        CursorPage<BorrowingResponse> page = borrowingService.searchBorrowings(new BorrowingFilter(),
+                null, ROWS, "borrowDate", "desc");
+
+        assertEquals(ROWS, page.getContent().size());
+        assertFalse(page.isHasNext());
+        assertTrue(page.getContent().stream().allMatch(borrowing -> borrowing.getBookTitle() != null
+                && borrowing.getMemberName() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchBorrowings_KeysetPagesCoverAllRowsOnce() {
+        Set<UUID> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<BorrowingResponse> page = borrowingService.searchBorrowings(new BorrowingFilter(),
+                    cursor, 6, "dueDate", "asc");
+            page.getContent().forEach(borrowing -> assertTrue(seen.add(borrowing.getId())));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(ROWS, seen.size());
+        assertEquals(4, pages);
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchBorrowings_FiltersByMemberAndStatus() {
+        BorrowingFilter filter = new BorrowingFilter(memberId, null, Borrowing.BorrowingStatus.OVERDUE, null, null);
+
+        CursorPage<BorrowingResponse> page = borrowingService.searchBorrowings(filter, null, 10, "borrowDate", "desc");
+
+        assertEquals(1, page.getContent().size());
+        assertEquals("Member 0", page.getContent().get(0).getMemberName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOverdueBorrowings_SingleQuery() {
+        CursorPage<BorrowingResponse> page = borrowingService.getOverdueBorrowings(null, ROWS, "dueDate", "asc");
+
+        assertEquals(ROWS / 2, page.getContent().size());
+        assertFalse(page.isHasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
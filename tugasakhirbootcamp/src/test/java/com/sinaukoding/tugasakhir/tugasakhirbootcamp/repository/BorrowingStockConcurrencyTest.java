@@ -0,0 +1,354 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.repository;
+
+import dto.BorrowingDto;
+import dto.request.CheckoutRequest;
+import dto.request.ReturnBatchRequest;
+import dto.response.BorrowingResponse;
+import dto.response.CheckoutResult;
+import dto.response.ReturnBatchResult;
+import entity.Book;
+import entity.BookCopy;
+import entity.Borrowing;
+import entity.Member;
+import exception.CopyRegistrationConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import repository.BookCopyRepository;
+import repository.BookRepository;
+import repository.BorrowingRepository;
+import repository.MemberRepository;
+import service.ActiveLoanWindow;
+import service.BookCopyService;
+import service.BorrowingService;
+import service.cache.BookCache;
+import service.search.CatalogSearchIndex;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs checkouts and returns from many threads against a real database, each call in its own
+ * committed transaction, and checks that stock is never oversold or restored twice and that
+ * multi-book carts and batch returns do not deadlock.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "app.inventory.per-copy.enabled=true"
+})
+@Import({JpaTestConfig.class, BorrowingService.class, ActiveLoanWindow.class, BookCopyService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BorrowingStockConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 64;
+    private static final int STOCK = 5;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookCopyService bookCopyService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @MockitoBean
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @MockitoBean
+    private BookCache bookCache;
+
+    private Book book;
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setTitle("Bumi Manusia");
+        book.setAuthor("Pramoedya Ananta Toer");
+        book.setIsbn("9789799731234");
+        book.setPrice(new BigDecimal("95000.00"));
+        book.setStock(STOCK);
+        book = bookRepository.save(book);
+
+        member = new Member();
+        member.setName("Siti");
+        member.setEmail("siti@example.com");
+        member.setPhone("08123456789");
+        member = memberRepository.save(member);
+    }
+
+    @AfterEach
+    void tearDown() {
+        borrowingRepository.deleteAll();
+        bookCopyRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCheckouts_NeverOversell() throws Exception {
+        List<Callable<BorrowingResponse>> checkouts = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            checkouts.add(() -> borrowingService.createBorrowing(borrowingRequest()));
+        }
+
+        List<BorrowingResponse> borrowed = runConcurrently(checkouts);
+
+        assertEquals(STOCK, borrowed.size());
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getStock());
+        assertEquals(STOCK, borrowingRepository.count());
+    }
+
+    @Test
+    void concurrentDuplicateReturns_RestoreStockOnce() throws Exception {
+        List<UUID> borrowingIds = new ArrayList<>();
+        for (int i = 0; i < STOCK; i++) {
+            borrowingIds.add(borrowingService.createBorrowing(borrowingRequest()).getId());
+        }
+
+        // Every borrowing is returned from several threads at once
+        List<Callable<BorrowingResponse>> returns = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            UUID borrowingId = borrowingIds.get(i % borrowingIds.size());
+            returns.add(() -> borrowingService.returnBook(borrowingId));
+        }
+
+        List<BorrowingResponse> returned = runConcurrently(returns);
+
+        assertEquals(STOCK, returned.size());
+        assertEquals(STOCK, bookRepository.findById(book.getId()).orElseThrow().getStock());
+        assertTrue(borrowingRepository.findAll().stream()
+                .allMatch(borrowing -> borrowing.getStatus() == Borrowing.BorrowingStatus.RETURNED));
+    }
+
+    @Test
+    void concurrentCheckoutsOfCopies_ClaimDistinctCopies() throws Exception {
+        List<String> barcodes = new ArrayList<>();
+        for (int i = 0; i < STOCK; i++) {
+            barcodes.add("BM-" + i);
+        }
+        bookCopyService.addCopies(book.getId(), barcodes);
+
+        List<Callable<BorrowingResponse>> checkouts = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            checkouts.add(() -> borrowingService.createBorrowing(borrowingRequest()));
+        }
+
+        List<BorrowingResponse> borrowed = runConcurrently(checkouts);
+        bookCopyService.refreshStock();
+
+        assertEquals(STOCK, borrowed.size());
+        assertEquals(STOCK, borrowed.stream().map(BorrowingResponse::getCopyBarcode).distinct().count());
+        assertTrue(bookCopyRepository.findAll().stream()
+                .allMatch(copy -> copy.getStatus() == BookCopy.CopyStatus.BORROWED));
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getStock());
+
+        borrowingService.returnBook(borrowed.get(0).getId());
+        bookCopyService.refreshStock();
+
+        assertEquals(1, bookRepository.findById(book.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void addCopies_WhileCounterLoansAreOpen_IsRefused() {
+        UUID borrowingId = borrowingService.createBorrowing(borrowingRequest()).getId();
+
+        assertThrows(CopyRegistrationConflictException.class,
+                () -> bookCopyService.addCopies(book.getId(), List.of("BM-0", "BM-1")));
+        assertEquals(0, bookCopyRepository.count());
+        assertEquals(STOCK - 1, bookRepository.findById(book.getId()).orElseThrow().getStock());
+
+        borrowingService.returnBook(borrowingId);
+        bookCopyService.addCopies(book.getId(), List.of("BM-0", "BM-1"));
+
+        assertEquals(2, bookCopyRepository.count());
+    }
+
+    @Test
+    void refreshStock_ReindexesRecalculatedStockForRankedSearch() {
+        bookCopyService.addCopies(book.getId(), List.of("BM-0", "BM-1"));
+
+        bookCopyService.refreshStock();
+
+        assertEquals(2, bookRepository.findById(book.getId()).orElseThrow().getStock());
+        verify(catalogSearchIndex).index(argThat(indexed ->
+                indexed.getId().equals(book.getId()) && indexed.getStock() == 2));
+    }
+
+    @Test
+    void concurrentCartsInOppositeOrder_DoNotDeadlockOrOversell() throws Exception {
+        Book second = new Book();
+        second.setTitle("Anak Semua Bangsa");
+        second.setAuthor("Pramoedya Ananta Toer");
+        second.setIsbn("9789799731241");
+        second.setPrice(new BigDecimal("95000.00"));
+        second.setStock(STOCK);
+        second = bookRepository.save(second);
+
+        List<Callable<CheckoutResult>> carts = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            List<Long> bookIds = i % 2 == 0
+                    ? List.of(book.getId(), second.getId())
+                    : List.of(second.getId(), book.getId());
+            carts.add(() -> borrowingService.checkout(checkoutRequest(bookIds)));
+        }
+
+        List<CheckoutResult> results = runConcurrently(carts);
+
+        // Every cart completes; the ones that arrive late get per-item UNAVAILABLE outcomes
+        assertEquals(ATTEMPTS, results.size());
+        assertEquals(2 * STOCK, results.stream().mapToInt(CheckoutResult::getBorrowed).sum());
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getStock());
+        assertEquals(0, bookRepository.findById(second.getId()).orElseThrow().getStock());
+        assertEquals(2 * STOCK, borrowingRepository.count());
+    }
+
+    @Test
+    void checkout_ReportsOutcomePerItem() {
+        CheckoutResult result = borrowingService.checkout(checkoutRequest(List.of(book.getId(), -1L, book.getId())));
+
+        assertEquals(1, result.getBorrowed());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(CheckoutResult.ItemStatus.BORROWED, CheckoutResult.ItemStatus.NOT_FOUND,
+                        CheckoutResult.ItemStatus.DUPLICATE),
+                result.getItems().stream().map(CheckoutResult.ItemResult::getStatus).toList());
+        assertEquals("Bumi Manusia", result.getItems().get(0).getBorrowing().getBookTitle());
+        assertEquals(7, result.getItems().get(0).getBorrowing().getId().version());
+        assertEquals(STOCK - 1, bookRepository.findById(book.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void concurrentOverlappingReturnBatches_RestoreStockOnce() throws Exception {
+        Book withCopies = new Book();
+        withCopies.setTitle("Jejak Langkah");
+        withCopies.setAuthor("Pramoedya Ananta Toer");
+        withCopies.setIsbn("9789799731258");
+        withCopies.setPrice(new BigDecimal("95000.00"));
+        withCopies.setStock(0);
+        withCopies = bookRepository.save(withCopies);
+        bookCopyService.addCopies(withCopies.getId(), List.of("JL-0", "JL-1"));
+
+        List<UUID> borrowingIds = new ArrayList<>();
+        for (int i = 0; i < STOCK; i++) {
+            borrowingIds.add(borrowingService.createBorrowing(borrowingRequest()).getId());
+        }
+        BorrowingDto copyRequest = borrowingRequest();
+        copyRequest.setBookId(withCopies.getId());
+        List<String> barcodes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            barcodes.add(borrowingService.createBorrowing(copyRequest).getCopyBarcode());
+        }
+
+        ReturnBatchRequest request = new ReturnBatchRequest();
+        request.setBorrowingIds(borrowingIds);
+        request.setBarcodes(barcodes);
+        List<Callable<ReturnBatchResult>> batches = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            batches.add(() -> borrowingService.returnBatch(request));
+        }
+
+        List<ReturnBatchResult> results = runConcurrently(batches);
+        bookCopyService.refreshStock();
+
+        assertEquals(THREADS, results.size());
+        assertEquals(STOCK + 2, results.stream().mapToInt(ReturnBatchResult::getReturned).sum());
+        assertEquals(STOCK, bookRepository.findById(book.getId()).orElseThrow().getStock());
+        assertEquals(2, bookRepository.findById(withCopies.getId()).orElseThrow().getStock());
+        assertTrue(borrowingRepository.findAll().stream()
+                .allMatch(borrowing -> borrowing.getStatus() == Borrowing.BorrowingStatus.RETURNED));
+    }
+
+    @Test
+    void returnBatch_ReportsOutcomePerItem() {
+        UUID borrowingId = borrowingService.createBorrowing(borrowingRequest()).getId();
+        UUID returnedId = borrowingService.createBorrowing(borrowingRequest()).getId();
+        borrowingService.returnBook(returnedId);
+
+        ReturnBatchRequest request = new ReturnBatchRequest();
+        request.setBorrowingIds(List.of(borrowingId, borrowingId, returnedId, UUID.randomUUID()));
+        request.setBarcodes(List.of("UNKNOWN-BARCODE"));
+        ReturnBatchResult result = borrowingService.returnBatch(request);
+
+        assertEquals(1, result.getReturned());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(ReturnBatchResult.ItemStatus.RETURNED, ReturnBatchResult.ItemStatus.DUPLICATE,
+                        ReturnBatchResult.ItemStatus.ALREADY_RETURNED, ReturnBatchResult.ItemStatus.NOT_FOUND,
+                        ReturnBatchResult.ItemStatus.NOT_FOUND),
+                result.getItems().stream().map(ReturnBatchResult.ItemResult::getStatus).toList());
+        assertEquals(STOCK, bookRepository.findById(book.getId()).orElseThrow().getStock());
+    }
+
+    // Returns the results of the calls that succeeded; rejected calls throw and are not counted
+    private <T> List<T> runConcurrently(List<Callable<T>> calls) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> call : calls) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+
+            List<T> succeeded = new ArrayList<>();
+            for (Future<T> future : futures) {
+                try {
+                    succeeded.add(future.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertInstanceOf(RuntimeException.class, e.getCause());
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BorrowingDto borrowingRequest() {
+        BorrowingDto request = new BorrowingDto();
+        request.setBookId(book.getId());
+        request.setMemberId(member.getId());
+        return request;
+    }
+
+    private CheckoutRequest checkoutRequest(List<Long> bookIds) {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setMemberId(member.getId());
+        request.setBookIds(bookIds);
+        return request;
+    }
+}
@@ -0,0 +1,11 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.repository;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+@TestConfiguration
+@EntityScan("entity")
+@EnableJpaRepositories("repository")
+class JpaTestConfig {
+}
@@ -0,0 +1,189 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.repository;
+
+import dto.response.BorrowingResponse;
+import dto.response.CursorPage;
+import entity.Book;
+import entity.Borrowing;
+import entity.Member;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import repository.BookRepository;
+import repository.BorrowingRepository;
+import repository.MemberRepository;
+import service.ActiveLoanWindow;
+import service.BookCopyService;
+import service.BorrowingService;
+import service.OverdueSweeper;
+import service.cache.BookCache;
+import service.search.CatalogSearchIndex;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.overdue.chunk-size=2"
+})
+@Import({JpaTestConfig.class, OverdueSweeper.class, BorrowingService.class, ActiveLoanWindow.class,
+        BookCopyService.class, OverdueSweeperTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OverdueSweeperTest {
+
+    @Autowired
+    private OverdueSweeper overdueSweeper;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private ActiveLoanWindow activeLoanWindow;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @MockitoBean
+    private BookCache bookCache;
+
+    private Book book;
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setTitle("Ronggeng Dukuh Paruk");
+        book.setAuthor("Ahmad Tohari");
+        book.setIsbn("9789792201789");
+        book.setPrice(new BigDecimal("80000.00"));
+        book.setStock(10);
+        book = bookRepository.save(book);
+
+        member = new Member();
+        member.setName("Budi");
+        member.setEmail("budi@example.com");
+        member.setPhone("08111111111");
+        member = memberRepository.save(member);
+    }
+
+    @AfterEach
+    void tearDown() {
+        borrowingRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void sweep_MarksOnlyBorrowedPastDueAcrossChunks() {
+        for (int i = 0; i < 5; i++) {
+            borrowing(LocalDate.now().minusDays(i + 1), Borrowing.BorrowingStatus.BORROWED);
+        }
+        Borrowing dueToday = borrowing(LocalDate.now(), Borrowing.BorrowingStatus.BORROWED);
+        Borrowing returned = borrowing(LocalDate.now().minusDays(3), Borrowing.BorrowingStatus.RETURNED);
+
+        long marked = overdueSweeper.sweep();
+
+        assertEquals(5, marked);
+        assertEquals(5, overdue().size());
+        assertEquals(Borrowing.BorrowingStatus.BORROWED,
+                borrowingRepository.findById(dueToday.getId()).orElseThrow().getStatus());
+        assertEquals(Borrowing.BorrowingStatus.RETURNED,
+                borrowingRepository.findById(returned.getId()).orElseThrow().getStatus());
+        assertEquals(5, meterRegistry.get("borrowings.overdue.marked").counter().count());
+        assertEquals(3, meterRegistry.get("borrowings.overdue.sweep.chunks").counter().count());
+        assertEquals(0, overdueSweeper.sweep());
+    }
+
+    @Test
+    void returnBook_AcceptsOverdueBorrowing() {
+        Borrowing late = borrowing(LocalDate.now().minusDays(2), Borrowing.BorrowingStatus.BORROWED);
+        overdueSweeper.sweep();
+
+        BorrowingResponse returned = borrowingService.returnBook(late.getId());
+
+        assertEquals(Borrowing.BorrowingStatus.RETURNED, returned.getStatus());
+        assertEquals(11, bookRepository.findById(book.getId()).orElseThrow().getStock());
+        assertTrue(overdue().isEmpty());
+    }
+
+    @Test
+    void sweep_WindowStartsAtOldestOpenLoan() {
+        borrowing(LocalDate.now().minusYears(3), Borrowing.BorrowingStatus.RETURNED);
+        Borrowing forgotten = borrowing(LocalDate.now().minusYears(2), Borrowing.BorrowingStatus.BORROWED);
+
+        overdueSweeper.sweep();
+
+        assertEquals(forgotten.getBorrowDate(), activeLoanWindow.since());
+        assertEquals(List.of(forgotten.getId()),
+                overdue().stream().map(BorrowingResponse::getId).toList());
+    }
+
+    @Test
+    void getOverdueBorrowings_PagesMostOverdueFirst() {
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 5; i > 0; i--) {
+            expected.add(borrowing(LocalDate.now().minusDays(i), Borrowing.BorrowingStatus.OVERDUE).getId());
+        }
+        activeLoanWindow.refresh();
+
+        CursorPage<BorrowingResponse> first = borrowingService.getOverdueBorrowings(null, 3, "dueDate", "asc");
+        CursorPage<BorrowingResponse> second = borrowingService.getOverdueBorrowings(first.getNextCursor(), 3,
+                "dueDate", "asc");
+
+        assertTrue(first.isHasNext());
+        assertFalse(second.isHasNext());
+        List<UUID> visited = new ArrayList<>();
+        first.getContent().forEach(borrowing -> visited.add(borrowing.getId()));
+        second.getContent().forEach(borrowing -> visited.add(borrowing.getId()));
+        assertEquals(expected, visited);
+    }
+
+    private List<BorrowingResponse> overdue() {
+        return borrowingService.getOverdueBorrowings(null, 100, "dueDate", "asc").getContent();
+    }
+
+    private Borrowing borrowing(LocalDate dueDate, Borrowing.BorrowingStatus status) {
+        Borrowing borrowing = new Borrowing();
+        borrowing.setBook(book);
+        borrowing.setMember(member);
+        borrowing.setBorrowDate(dueDate.minusDays(14));
+        borrowing.setDueDate(dueDate);
+        borrowing.setStatus(status);
+        return borrowingRepository.save(borrowing);
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.secruity;
+
+import entity.Role;
+import entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import secruity.jwt.JwtUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "eW91clN1cGVyU2VjcmV0S2V5VGhhdElzQXRMZWFzdDI1NkJpdHNMb25nQW5kUmFuZG9t";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = newJwtUtils(SECRET, 60_000);
+    }
+
+    @Test
+    void parseClaims_ValidToken_ReturnsSubject() {
+        Optional<Claims> claims = jwtUtils.parseClaims(tokenFor(jwtUtils, "librarian"));
+
+        assertTrue(claims.isPresent());
+        assertEquals("librarian", claims.get().getSubject());
+    }
+
+    @Test
+    void parseClaims_TokenSignedWithOtherKey_IsRejected() {
+        JwtUtils other = newJwtUtils("b3RoZXJTZWNyZXRLZXlUaGF0SXNBdExlYXN0MjU2Qml0c0xvbmdBbmRSYW5kb20x", 60_000);
+
+        assertTrue(jwtUtils.parseClaims(tokenFor(other, "librarian")).isEmpty());
+    }
+
+    @Test
+    void parseClaims_UnsignedToken_IsRejected() {
+        String unsigned = Jwts.builder().setSubject("admin").setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .compact();
+
+        assertTrue(jwtUtils.parseClaims(unsigned).isEmpty());
+    }
+
+    @Test
+    void parseClaims_ExpiredToken_IsRejected() {
+        JwtUtils expiring = newJwtUtils(SECRET, -1_000);
+
+        assertTrue(jwtUtils.parseClaims(tokenFor(expiring, "librarian")).isEmpty());
+    }
+
+    @Test
+    void roleClaimsToken_BuildsPrincipalWithoutLookup() {
+        JwtUtils roleClaims = newJwtUtils(SECRET, 60_000);
+        ReflectionTestUtils.setField(roleClaims, "roleClaimsEnabled", true);
+        ReflectionTestUtils.setField(roleClaims, "roleClaimsExpirationMs", 900_000);
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("librarian");
+        Role role = new Role();
+        role.setName("ROLE_LIBRARIAN");
+        user.setRoles(Set.of(role));
+
+        Claims claims = roleClaims.parseClaims(
+                roleClaims.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null))).orElseThrow();
+        UserDetails principal = roleClaims.getUserDetailsFromClaims(claims).orElseThrow();
+
+        assertEquals("librarian", principal.getUsername());
+        assertEquals(user.getId(), ((User) principal).getId());
+        assertEquals(List.of("ROLE_LIBRARIAN"),
+                principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(900, (claims.getExpiration().getTime() - claims.getIssuedAt().getTime()) / 1000);
+    }
+
+    @Test
+    void roleClaimsDisabled_FallsBackToLookup() {
+        Claims claims = jwtUtils.parseClaims(tokenFor(jwtUtils, "librarian")).orElseThrow();
+
+        assertTrue(jwtUtils.getUserDetailsFromClaims(claims).isEmpty());
+        assertNotNull(claims.getId());
+    }
+
+    private static JwtUtils newJwtUtils(String secret, int expirationMs) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.invokeMethod(utils, "init");
+        return utils;
+    }
+
+    private static String tokenFor(JwtUtils utils, String username) {
+        User user = new User();
+        user.setUsername(username);
+        return utils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null));
+    }
+}
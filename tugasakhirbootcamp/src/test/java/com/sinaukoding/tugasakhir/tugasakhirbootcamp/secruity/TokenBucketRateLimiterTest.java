@@ -0,0 +1,82 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.secruity;
+
+import org.junit.jupiter.api.Test;
+import secruity.ratelimit.TokenBucketRateLimiter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void tryAcquire_AllowsBurstThenReportsWait() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 3, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("kiosk"));
+        }
+        long wait = limiter.tryAcquire("kiosk");
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+        assertEquals(0, limiter.tryAcquire("librarian"));
+    }
+
+    @Test
+    void tryAcquire_RefillsAtConfiguredRate() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("kiosk"));
+        assertTrue(limiter.tryAcquire("kiosk") > 0);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertEquals(0, limiter.tryAcquire("kiosk"));
+    }
+
+    @Test
+    void tryAcquire_EvictsIdleBucketsLazily() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 5, clock::get);
+        limiter.tryAcquire("kiosk");
+        limiter.tryAcquire("librarian");
+        assertEquals(2, limiter.size());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        limiter.tryAcquire("librarian");
+
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void tryAcquire_ConcurrentCallersNeverExceedBurst() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 50, clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire("kiosk") == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(50, allowed.get());
+    }
+}
@@ -0,0 +1,118 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.secruity;
+
+import entity.TokenRevocation;
+import entity.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.TokenRevocationRepository;
+import secruity.jwt.JwtUtils;
+import secruity.jwt.TokenRevocationList;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTest {
+
+    private static final String SECRET = "eW91clN1cGVyU2VjcmV0S2V5VGhhdElzQXRMZWFzdDI1NkJpdHNMb25nQW5kUmFuZG9t";
+
+    private JwtUtils jwtUtils;
+    private TokenRevocationRepository tokenRevocationRepository;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        tokenRevocationRepository = mock(TokenRevocationRepository.class);
+        revocationList = new TokenRevocationList(jwtUtils, tokenRevocationRepository);
+        ReflectionTestUtils.setField(revocationList, "syncOverlapMs", 60_000L);
+    }
+
+    @Test
+    void revoke_AffectsOnlyThatToken() {
+        Claims first = claimsFor("librarian");
+        Claims second = claimsFor("librarian");
+
+        revocationList.revoke(first);
+
+        assertTrue(revocationList.isRevoked(first));
+        assertFalse(revocationList.isRevoked(second));
+    }
+
+    @Test
+    void revokeAllFor_AffectsEveryTokenOfThatUserIssuedSoFar() {
+        Claims librarian = claimsFor("librarian");
+        Claims admin = claimsFor("admin");
+
+        revocationList.revokeAllFor("librarian");
+        revocationList.purgeExpired();
+
+        assertTrue(revocationList.isRevoked(librarian));
+        assertFalse(revocationList.isRevoked(admin));
+    }
+
+    @Test
+    void revoke_IsStoredForOtherInstances() {
+        revocationList.revoke(claimsFor("librarian"));
+
+        verify(tokenRevocationRepository).save(any(TokenRevocation.class));
+    }
+
+    @Test
+    void sync_RebuildsFromStoredRevocations() {
+        Claims revoked = claimsFor("librarian");
+        Claims revokedUser = claimsFor("admin");
+        Claims other = claimsFor("member");
+        when(tokenRevocationRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(eq(Instant.EPOCH), any(Instant.class)))
+                .thenReturn(List.of(
+                        TokenRevocation.builder().id(1L).tokenId(revoked.getId())
+                                .revokedAt(Instant.now()).expiresAt(revoked.getExpiration().toInstant()).build(),
+                        TokenRevocation.builder().id(2L).username("admin")
+                                .revokedAt(Instant.now()).expiresAt(Instant.now().plusSeconds(60)).build()));
+
+        revocationList.sync();
+        revocationList.sync();
+
+        assertTrue(revocationList.isRevoked(revoked));
+        assertTrue(revocationList.isRevoked(revokedUser));
+        assertFalse(revocationList.isRevoked(other));
+        verify(tokenRevocationRepository).findByRevokedAtGreaterThanEqualAndExpiresAtAfter(eq(Instant.EPOCH), any(Instant.class));
+    }
+
+    @Test
+    void sync_PicksUpRowThatCommittedAfterThePreviousSync() {
+        Claims revoked = claimsFor("librarian");
+        List<TokenRevocation> committed = new ArrayList<>();
+        when(tokenRevocationRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(Instant.class), any(Instant.class)))
+                .thenAnswer(invocation -> {
+                    Instant since = invocation.getArgument(0);
+                    return committed.stream().filter(row -> !row.getRevokedAt().isBefore(since)).toList();
+                });
+
+        revocationList.sync();
+        // Revoked on another instance before that sync ran, but only committed after it
+        committed.add(TokenRevocation.builder().id(1L).tokenId(revoked.getId())
+                .revokedAt(Instant.now().minusSeconds(5)).expiresAt(revoked.getExpiration().toInstant()).build());
+        revocationList.sync();
+
+        assertTrue(revocationList.isRevoked(revoked));
+    }
+
+    private Claims claimsFor(String username) {
+        User user = new User();
+        user.setUsername(username);
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null));
+        return jwtUtils.parseClaims(token).orElseThrow();
+    }
+}
@@ -0,0 +1,149 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.service;
+
+import dto.BookDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import service.cache.BookCache;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCacheTest {
+
+    private final BookCache bookCache = new BookCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+    @Test
+    void evictionDuringLoad_NextReadSeesTheNewRow() throws Exception {
+        AtomicReference<BookDTO> row = new AtomicReference<>(book(5));
+        CountDownLatch loaderRead = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The loader reads the row, then stalls before its result reaches the cache
+            Future<Optional<BookDTO>> staleRead = executor.submit(() -> bookCache.getById(1L, id -> {
+                BookDTO read = row.get();
+                loaderRead.countDown();
+                await(releaseLoader);
+                return Optional.of(read);
+            }));
+            assertTrue(loaderRead.await(5, TimeUnit.SECONDS));
+
+            // A writer commits the new stock and evicts while that load is still running
+            row.set(book(2));
+            Future<?> eviction = executor.submit(() -> bookCache.evict(1L));
+            releaseLoader.countDown();
+
+            assertEquals(5, staleRead.get(5, TimeUnit.SECONDS).orElseThrow().getStock());
+            eviction.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Optional<BookDTO> next = bookCache.getById(1L, id -> Optional.of(row.get()));
+
+        assertEquals(2, next.orElseThrow().getStock());
+    }
+
+    @Test
+    void concurrentMisses_ShareOneLoad() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Optional<BookDTO>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> bookCache.getById(1L, id -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return Optional.of(book(5));
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Optional<BookDTO>> result : results) {
+                assertEquals(5, result.get(5, TimeUnit.SECONDS).orElseThrow().getStock());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, bookCache.stats().loadCount());
+    }
+
+    @Test
+    void callersGetIndependentCopies() {
+        BookDTO first = bookCache.getById(1L, id -> Optional.of(book(5))).orElseThrow();
+        first.setStock(0);
+
+        assertEquals(5, bookCache.getById(1L, id -> Optional.empty()).orElseThrow().getStock());
+    }
+
+    @Test
+    void missingBook_IsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        bookCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<BookDTO> loaded = bookCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(book(5));
+        });
+
+        assertTrue(loaded.isPresent());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getByIsbn_IsbnMovedToAnotherBook_ResolvesAgain() {
+        BookDTO original = book(5);
+        bookCache.getByIsbn(original.getIsbn(), isbn -> Optional.of(1L), id -> Optional.of(original));
+
+        // Book 1 took a new ISBN and book 2 now carries the old one
+        BookDTO renamed = book(5);
+        renamed.setIsbn("9780000000001");
+        BookDTO successor = book(7);
+        successor.setId(2L);
+        bookCache.evict(1L);
+
+        Optional<BookDTO> found = bookCache.getByIsbn(original.getIsbn(), isbn -> Optional.of(2L),
+                id -> Optional.of(id == 1L ? renamed : successor));
+
+        assertEquals(2L, found.orElseThrow().getId());
+    }
+
+    private BookDTO book(int stock) {
+        BookDTO book = new BookDTO();
+        book.setId(1L);
+        book.setTitle("Bumi Manusia");
+        book.setAuthor("Pramoedya Ananta Toer");
+        book.setIsbn("9789799731234");
+        book.setPrice(new BigDecimal("95000.00"));
+        book.setStock(stock);
+        return book;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
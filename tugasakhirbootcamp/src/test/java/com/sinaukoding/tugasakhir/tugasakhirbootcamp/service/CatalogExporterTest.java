@@ -0,0 +1,83 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.service;
+
+import exception.ExportUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import service.BookService;
+import service.CatalogExporter;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class CatalogExporterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookService bookService = mock(BookService.class);
+    private final CatalogExporter exporter = new CatalogExporter(bookService, meterRegistry, 1, Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        exporter.shutdown();
+    }
+
+    @Test
+    void start_LimitReached_RejectsUntilTheRunningExportEnds() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            running.countDown();
+            await(release);
+            return null;
+        }).when(bookService).exportBooks(any(OutputStream.class));
+
+        assertNotNull(exporter.start());
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ExportUnavailableException.class, exporter::start);
+        assertEquals(1, meterRegistry.get("books.export.rejected").counter().count());
+
+        release.countDown();
+        assertNotNull(startWhenFree());
+    }
+
+    @Test
+    void start_FailedExport_ReleasesItsSlot() throws Exception {
+        doThrow(new IllegalStateException("query failed")).when(bookService).exportBooks(any(OutputStream.class));
+
+        assertNotNull(exporter.start());
+
+        assertNotNull(startWhenFree());
+    }
+
+    private ResponseBodyEmitter startWhenFree() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                return exporter.start();
+            } catch (ExportUnavailableException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.service;
+
+import dto.BookDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import repository.BookRepository;
+import service.search.CatalogSearchIndex;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        catalogSearchIndex.index(book(1L, "Laskar Pelangi", "Andrea Hirata", "Novel", "Kisah sekolah di Belitung"));
+        catalogSearchIndex.index(book(2L, "Bumi Manusia", "Pramoedya Ananta Toer", "Novel", "Roman sejarah"));
+        catalogSearchIndex.index(book(3L, "Sejarah Indonesia Modern", "M.C. Ricklefs", "History", "Sejarah Indonesia"));
+    }
+
+    @Test
+    void search_RanksTitleMatchesAboveDescriptionMatches() {
+        Page<BookDTO> result = catalogSearchIndex.search("sejarah", PageRequest.of(0, 10));
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals(3L, result.getContent().get(0).getId());
+        assertEquals(2L, result.getContent().get(1).getId());
+    }
+
+    @Test
+    void search_FoldsAccentsAndCase() {
+        catalogSearchIndex.index(book(4L, "Café Society", "Émile Zola", "Novel", null));
+
+        Page<BookDTO> result = catalogSearchIndex.search("CAFE emile", PageRequest.of(0, 10));
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals(4L, result.getContent().get(0).getId());
+    }
+
+    @Test
+    void index_ReplacesPreviousTermsOnUpdate() {
+        catalogSearchIndex.index(book(1L, "Sang Pemimpi", "Andrea Hirata", "Novel", null));
+
+        assertEquals(0, catalogSearchIndex.search("pelangi", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(1, catalogSearchIndex.search("pemimpi", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(3, catalogSearchIndex.size());
+    }
+
+    @Test
+    void remove_DropsBookFromResults() {
+        catalogSearchIndex.remove(2L);
+
+        Page<BookDTO> result = catalogSearchIndex.search("sejarah", PageRequest.of(0, 10));
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals(3L, result.getContent().get(0).getId());
+    }
+
+    @Test
+    void search_BlankQuery_ReturnsEmptyPage() {
+        assertTrue(catalogSearchIndex.search("  ", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private BookDTO book(Long id, String title, String author, String category, String description) {
+        return new BookDTO(id, title, author, "978000000000" + id, new BigDecimal("50000.00"),
+                description, 5, 2005, category, null);
+    }
+}
@@ -0,0 +1,85 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.service;
+
+import exception.InvalidImportFileException;
+import org.junit.jupiter.api.Test;
+import service.CsvRecordReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void plainRecords_SplitOnCommasAndLineBreaks() throws IOException {
+        CsvRecordReader reader = reader("title,author\nBumi Manusia,Pramoedya\n");
+
+        assertEquals(List.of("title", "author"), reader.next());
+        assertEquals(List.of("Bumi Manusia", "Pramoedya"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedField_KeepsCommas() throws IOException {
+        CsvRecordReader reader = reader("\"Laskar Pelangi, Edisi 2\",Andrea Hirata\n");
+
+        assertEquals(List.of("Laskar Pelangi, Edisi 2", "Andrea Hirata"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void doubledQuotesInsideQuotedField_AreUnescaped() throws IOException {
+        CsvRecordReader reader = reader("\"The \"\"Lost\"\" Chapter\",\"\"\"\"\n");
+
+        assertEquals(List.of("The \"Lost\" Chapter", "\""), reader.next());
+    }
+
+    @Test
+    void lineBreakInsideQuotedField_StaysInTheRecord() throws IOException {
+        CsvRecordReader reader = reader("1,\"first line\nsecond line\",x\n2,y,z\n");
+
+        assertEquals(List.of("1", "first line\nsecond line", "x"), reader.next());
+        assertEquals(List.of("2", "y", "z"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void crlfLineEndings_AreNotPartOfTheLastField() throws IOException {
+        CsvRecordReader reader = reader("a,b\r\nc,\"d\"\r\n");
+
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("c", "d"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void trailingComma_YieldsEmptyLastField() throws IOException {
+        CsvRecordReader reader = reader("a,b,\nc,d,");
+
+        assertEquals(List.of("a", "b", ""), reader.next());
+        assertEquals(List.of("c", "d", ""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void lastRecordWithoutLineBreak_IsReturned() throws IOException {
+        CsvRecordReader reader = reader("a,b");
+
+        assertEquals(List.of("a", "b"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void unterminatedQuote_IsRejected() {
+        CsvRecordReader reader = reader("a,\"never closed\n");
+
+        assertThrows(InvalidImportFileException.class, reader::next);
+    }
+
+    private CsvRecordReader reader(String csv) {
+        return new CsvRecordReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,47 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.service;
+
+import exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import service.cursor.CursorCodec;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorCodecTest {
+
+    @Test
+    void encodeThenDecode_ReturnsTheSameValuesInOrder() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", new BigDecimal("95000.00"));
+        keys.put("updatedAt", LocalDateTime.of(2024, 1, 1, 10, 0, 30));
+        keys.put("id", 42L);
+        keys.put("_sort", "price");
+
+        String token = CursorCodec.encode(keys);
+        Map<String, String> decoded = CursorCodec.decode(token);
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "token must be URL-safe without padding");
+        assertEquals(List.of("price", "updatedAt", "id", "_sort"), List.copyOf(decoded.keySet()));
+        assertEquals("95000.00", decoded.get("price"));
+        assertEquals("2024-01-01T10:00:30", decoded.get("updatedAt"));
+        assertEquals("42", decoded.get("id"));
+        assertEquals("price", decoded.get("_sort"));
+    }
+
+    @Test
+    void decode_NotBase64_IsRejected() {
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode("not a cursor!"));
+    }
+
+    @Test
+    void decode_TruncatedToken_IsRejected() {
+        String token = CursorCodec.encode(Map.of("id", 42L));
+
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode(token.substring(0, token.length() - 3)));
+    }
+}
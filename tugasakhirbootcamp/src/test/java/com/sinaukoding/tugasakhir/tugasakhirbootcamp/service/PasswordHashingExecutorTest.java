@@ -0,0 +1,75 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.service;
+
+import exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import service.PasswordHashingExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor executor =
+            new PasswordHashingExecutor(meterRegistry, 1, 1, Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_ReturnsResultAndRecordsStageTimings() {
+        assertEquals("hash", executor.execute("encode", () -> "hash"));
+
+        assertEquals(1, meterRegistry.get("auth.hashing.queue").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("auth.hashing.execution").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void execute_RethrowsAuthenticationFailureUnchanged() {
+        assertThrows(BadCredentialsException.class, () -> executor.execute("verify", () -> {
+            throw new BadCredentialsException("Bad credentials");
+        }));
+    }
+
+    @Test
+    void execute_QueueFull_RejectsImmediately() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> executor.execute("verify", () -> {
+            running.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute("verify", () -> "second"));
+        while (meterRegistry.get("executor.queued").tag("name", "password-hashing").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThrows(LoginThrottledException.class, () -> executor.execute("verify", () -> "third"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        release.countDown();
+        assertEquals("first", busy.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("auth.hashing.rejected").counter().count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.service;
+
+import entity.RefreshToken;
+import entity.User;
+import exception.InvalidRefreshTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.RefreshTokenRepository;
+import secruity.jwt.JwtUtils;
+import secruity.jwt.TokenRevocationList;
+import service.RefreshTokenService;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private JwtUtils jwtUtils;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpirationMs", 60_000L);
+        user = new User();
+        user.setUsername("librarian");
+        user.setEnabled(true);
+    }
+
+    @Test
+    void rotate_MarksTokenUsedAndIssuesNextInSameSession() {
+        RefreshTokenService.IssuedRefreshToken issued = refreshTokenService.issue(user);
+        RefreshToken stored = lastSaved();
+        when(refreshTokenRepository.findByTokenHashForUpdate(stored.getTokenHash())).thenReturn(Optional.of(stored));
+
+        RefreshTokenService.IssuedRefreshToken rotated = refreshTokenService.rotate(issued.token());
+
+        assertNotNull(stored.getUsedAt());
+        assertNotEquals(issued.token(), rotated.token());
+        assertEquals(issued.sessionId(), rotated.sessionId());
+        assertEquals(issued.sessionId(), lastSaved().getFamilyId());
+    }
+
+    @Test
+    void rotate_ReusedToken_RevokesWholeSession() {
+        UUID familyId = UUID.randomUUID();
+        RefreshToken used = RefreshToken.builder()
+                .user(user).familyId(familyId)
+                .expiresAt(Instant.now().plusSeconds(60)).usedAt(Instant.now())
+                .build();
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.of(used));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("stolen"));
+        verify(refreshTokenRepository).revokeFamily(familyId);
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void rotate_ExpiredToken_IsRejected() {
+        RefreshToken expired = RefreshToken.builder()
+                .user(user).familyId(UUID.randomUUID())
+                .expiresAt(Instant.now().minusSeconds(1))
+                .build();
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.of(expired));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("expired"));
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    private RefreshToken lastSaved() {
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, atLeastOnce()).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,94 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.service;
+
+import entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import repository.RoleRepository;
+import repository.UserRepository;
+import service.RefreshTokenService;
+import service.UserService;
+import service.cache.UserDetailsCache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
+    @InjectMocks
+    private UserService userService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("librarian");
+        user.setEnabled(true);
+    }
+
+    @Test
+    void loadUserByUsername_SecondCallServedFromCache() {
+        when(userRepository.findByUsername("librarian")).thenReturn(Optional.of(user));
+
+        userService.loadUserByUsername("librarian");
+        UserDetails cached = userService.loadUserByUsername("librarian");
+
+        assertEquals("librarian", cached.getUsername());
+        verify(userRepository, times(1)).findByUsername("librarian");
+        assertEquals(1, userDetailsCache.stats().hitCount());
+    }
+
+    @Test
+    void loadUserByUsername_UnknownUserIsNotCached() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("ghost"));
+
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+
+    @Test
+    void setEnabled_EvictsCachedUserAndEndsSessions() {
+        when(userRepository.findByUsername("librarian")).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.loadUserByUsername("librarian");
+        userService.setEnabled("librarian", false);
+        UserDetails reloaded = userService.loadUserByUsername("librarian");
+
+        assertFalse(reloaded.isEnabled());
+        verify(userDetailsCache).invalidate("librarian");
+        verify(refreshTokenService).endAllSessions("librarian");
+        verify(userRepository, times(3)).findByUsername("librarian");
+    }
+}
@@ -0,0 +1,67 @@
+package com.sinaukoding.tugasakhir.tugasakhirbootcamp.service;
+
+import entity.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void nextUuid_IsVersion7WithRfcVariantAndCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.nextUuid();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after + 1);
+    }
+
+    @Test
+    void nextUuid_StrictlyIncreasesWithinOneThread() {
+        UUID previous = UuidV7Generator.nextUuid();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.nextUuid();
+            // Unsigned comparison of the time and counter bits, as the database orders them
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    void nextUuid_UniqueAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<UUID>>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    List<UUID> ids = new ArrayList<>();
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(UuidV7Generator.nextUuid());
+                    }
+                    return ids;
+                }));
+            }
+            List<UUID> all = new ArrayList<>();
+            for (Future<List<UUID>> future : futures) {
+                all.addAll(future.get());
+            }
+
+            assertEquals(all.size(), new HashSet<>(all).size());
+            // The time and counter bits alone never repeat, whatever the random bits are
+            assertEquals(all.size(), all.stream().map(UUID::getMostSignificantBits).distinct().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}